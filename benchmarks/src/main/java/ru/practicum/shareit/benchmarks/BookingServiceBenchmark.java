@@ -0,0 +1,77 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
+import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.booking.service.BookingService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingServiceBenchmark {
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.now().plusYears(10).truncatedTo(ChronoUnit.SECONDS);
+    private static final AtomicLong BOOKING_SLOT = new AtomicLong();
+    private static final int BATCH_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class StateParam {
+        @Param({"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+        String state;
+    }
+
+    @Benchmark
+    public BookingDto create(ShareItState shareIt) {
+        long itemId = shareIt.randomAvailableItemId();
+        LocalDateTime start = FAR_FUTURE.plusHours(BOOKING_SLOT.incrementAndGet());
+        NewBookingDto booking = new NewBookingDto();
+        booking.setItemId(itemId);
+        booking.setStart(start);
+        booking.setEnd(start.plusMinutes(30));
+        return shareIt.getBean(BookingService.class).create(booking, shareIt.bookerOf(itemId));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<BookingDto> createAll(ShareItState shareIt) {
+        long bookerId = shareIt.randomUserId();
+        List<NewBookingDto> bookings = new ArrayList<>(BATCH_SIZE);
+        while (bookings.size() < BATCH_SIZE) {
+            long itemId = shareIt.randomAvailableItemId();
+            if (shareIt.ownerOf(itemId) == bookerId) {
+                continue;
+            }
+            LocalDateTime start = FAR_FUTURE.plusHours(BOOKING_SLOT.incrementAndGet());
+            NewBookingDto booking = new NewBookingDto();
+            booking.setItemId(itemId);
+            booking.setStart(start);
+            booking.setEnd(start.plusMinutes(30));
+            bookings.add(booking);
+        }
+        return shareIt.getBean(BookingService.class).createAll(bookings, bookerId);
+    }
+
+    @Benchmark
+    public List<BookingDto> findUserBookings(ShareItState shareIt, StateParam param) {
+        return shareIt.getBean(BookingService.class).findUserBookings(shareIt.randomUserId(), BookingFilter.of(param.state), 0, 10);
+    }
+}
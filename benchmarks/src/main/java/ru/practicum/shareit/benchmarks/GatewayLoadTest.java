@@ -0,0 +1,107 @@
+package ru.practicum.shareit.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator: every client sends the next GET as soon as the previous one has completed,
+ * for {@code duration} seconds after a {@code warmup} period. Clients run on virtual threads, so thousands of them
+ * are cheap on the generator side and the measured latency is that of the gateway and the server.
+ *
+ * <p>Arguments are {@code key=value} pairs: {@code url}, {@code userId}, {@code clients}, {@code warmup},
+ * {@code duration}.
+ */
+public class GatewayLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "url", "http://localhost:8080/items/1",
+                "userId", "1",
+                "clients", "5000",
+                "warmup", "10",
+                "duration", "30"));
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option[1]);
+        }
+        int clients = Integer.parseInt(options.get("clients"));
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Long.parseLong(options.get("warmup"))).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(Long.parseLong(options.get("duration"))).toNanos();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.get("url")))
+                .header("X-Sharer-User-Id", options.get("userId"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        LongAdder errors = new LongAdder();
+
+        List<long[]> latencies = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(executor)
+                     .build()) {
+            List<Future<long[]>> results = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> runClient(http, request, warmupEnd, end, errors)));
+            }
+            for (Future<long[]> result : results) {
+                latencies.add(result.get());
+            }
+        }
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        double seconds = Double.parseDouble(options.get("duration"));
+        System.out.printf("clients=%d requests=%d errors=%d throughput=%.0f req/s%n",
+                clients, all.length, errors.sum(), all.length / seconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f max=%.1f%n",
+                percentile(all, 0.50), percentile(all, 0.90), percentile(all, 0.99), percentile(all, 1.0));
+    }
+
+    private static long[] runClient(HttpClient http, HttpRequest request, long warmupEnd, long end, LongAdder errors) {
+        long[] latencies = new long[64];
+        int count = 0;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            boolean ok;
+            try {
+                ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+            } catch (Exception e) {
+                ok = false;
+            }
+            long completed = System.nanoTime();
+            if (now < warmupEnd || completed > end) {
+                continue;
+            }
+            if (!ok) {
+                errors.increment();
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = completed - now;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
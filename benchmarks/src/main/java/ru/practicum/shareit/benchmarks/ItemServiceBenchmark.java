@@ -0,0 +1,51 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExtendedDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ItemServiceBenchmark {
+    private static final LocalDateTime RANGE_START = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+
+    @State(Scope.Benchmark)
+    public static class SearchParam {
+        @Param({"drill", "ladder 12", "number"})
+        String text;
+    }
+
+    @Benchmark
+    public Collection<ItemExtendedDto> getUserItems(ShareItState shareIt) {
+        return shareIt.getBean(ItemService.class).getUserItems(shareIt.randomUserId(), 0, 10);
+    }
+
+    @Benchmark
+    public List<ItemDto> search(ShareItState shareIt, SearchParam param) {
+        return shareIt.getBean(ItemService.class).search(param.text, 0, 10);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchAvailableBetween(ShareItState shareIt, SearchParam param) {
+        return shareIt.getBean(ItemService.class).searchAvailableBetween(param.text, RANGE_START, RANGE_START.plusDays(3), 0, 10);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the server application context without the web layer against an in-memory H2 database and seeds it
+ * with {@code items} items, a tenth as many users, a fifth as many requests and five bookings per item.
+ * Rows get consecutive ids starting from one, and the id sequences are moved past them for the entities created
+ * by the benchmarks. {@code jdbcBatchSize} is passed to Hibernate, so {@code -p jdbcBatchSize=1} turns insert
+ * batching off.
+ */
+@State(Scope.Benchmark)
+public class ShareItState {
+    private static final String[] ITEM_NAMES = {"Drill", "Saw", "Hammer", "Ladder", "Tent", "Bicycle", "Kayak", "Projector"};
+    private static final int BOOKINGS_PER_ITEM = 5;
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_ALLOCATION_SIZE = 500;
+
+    @Param({"1000", "10000"})
+    int items;
+
+    @Param({"500"})
+    int jdbcBatchSize;
+
+    int users;
+    int requests;
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:shareit-benchmarks;DB_CLOSE_DELAY=-1",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--shareit.metrics.sql.enabled=false",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        users = Math.max(10, items / 10);
+        requests = items / 5;
+        seed(context.getBean(JdbcTemplate.class));
+        context.getBean(ItemSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1, users + 1);
+    }
+
+    public long randomItemId() {
+        return ThreadLocalRandom.current().nextLong(1, items + 1);
+    }
+
+    public long randomAvailableItemId() {
+        long itemId;
+        do {
+            itemId = randomItemId();
+        } while (!isAvailable(itemId));
+        return itemId;
+    }
+
+    public boolean isAvailable(long itemId) {
+        return itemId % 7 != 0;
+    }
+
+    public long ownerOf(long itemId) {
+        return (itemId - 1) % users + 1;
+    }
+
+    public long bookerOf(long itemId) {
+        return itemId % users + 1;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 1; i <= users; i++) {
+            rows.add(new Object[]{(long) i, "user" + i, "user" + i + "@mail.com"});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO users (id, name, email) VALUES (?, ?, ?)", rows);
+
+        Timestamp created = Timestamp.valueOf(LocalDateTime.now().minusDays(30));
+        rows.clear();
+        for (int i = 1; i <= requests; i++) {
+            rows.add(new Object[]{(long) i, "Need a " + ITEM_NAMES[i % ITEM_NAMES.length].toLowerCase() + " #" + i, (long) (i % users + 1), created});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO requests (id, description, requestor_id, created_at) VALUES (?, ?, ?, ?)", rows);
+
+        rows.clear();
+        for (long id = 1; id <= items; id++) {
+            String name = ITEM_NAMES[(int) (id % ITEM_NAMES.length)];
+            Long requestId = requests > 0 && id % 4 == 0 ? id / 4 % requests + 1 : null;
+            rows.add(new Object[]{id, name + " " + id, "Description of " + name.toLowerCase() + " number " + id, isAvailable(id), ownerOf(id), requestId});
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO items (id, name, description, is_available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingStatus[] statuses = BookingStatus.values();
+        rows.clear();
+        long bookingId = 0;
+        for (long id = 1; id <= items; id++) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays((i - 2) * 10L);
+                rows.add(new Object[]{++bookingId, Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(5)), id, bookerOf(id),
+                        statuses[(int) ((id + i) % statuses.length)].name()});
+            }
+        }
+        batchInsert(jdbcTemplate, "INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?, ?)", rows);
+
+        restartSequence(jdbcTemplate, "users_seq", users);
+        restartSequence(jdbcTemplate, "requests_seq", requests);
+        restartSequence(jdbcTemplate, "items_seq", items);
+        restartSequence(jdbcTemplate, "bookings_seq", bookingId);
+    }
+
+    private void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long lastId) {
+        // A pooled generator hands out the block that ends at the value it fetches, so the first value has to be
+        // at least one full block above the seeded ids.
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + MAX_ALLOCATION_SIZE + 1));
+    }
+
+    private void batchInsert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(i, Math.min(rows.size(), i + BATCH_SIZE)));
+        }
+    }
+}
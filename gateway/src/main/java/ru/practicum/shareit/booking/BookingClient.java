@@ -1,57 +1,90 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String ENDPOINT = "${shareit-server.url}/bookings";
 
     @Autowired
-    public BookingClient(@Value(ENDPOINT) String endpoint, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(endpoint))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public BookingClient(@Value(ENDPOINT) String endpoint, CloseableHttpAsyncClient client, ObjectMapper mapper,
+                         ResponseCache cache) {
+        super(endpoint, client, mapper, cache);
     }
 
-    public ResponseEntity<Object> getBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public CompletableFuture<ResponseEntity<byte[]>> getBookings(long userId, List<BookingState> states, BookingFilterDto filter,
+                                                                 Integer from, Integer size, String after) {
+        Map<String, Object> parameters = listParameters(states, filter, from, size, after);
+        return get(listPath("", parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> bookItem(long userId, BookItemRequestDto requestDto) {
-        return post("", userId, requestDto);
+    public CompletableFuture<ResponseEntity<byte[]>> bookItem(long userId, BookItemRequestDto requestDto) {
+        return invalidating(() -> post("", userId, requestDto), "/items/" + requestDto.getItemId());
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
+    public CompletableFuture<ResponseEntity<byte[]>> bookItems(long userId, List<BookItemRequestDto> requestDtos) {
+        String[] itemPaths = requestDtos.stream()
+                .map(requestDto -> "/items/" + requestDto.getItemId())
+                .distinct()
+                .toArray(String[]::new);
+        return invalidating(() -> post("/batch", userId, requestDtos), itemPaths);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getBooking(long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> approveBooking(long bookingId, boolean approved, long userId) {
-        return patch("/" + bookingId + "?approved=" + approved, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> approveBooking(long bookingId, boolean approved, long userId) {
+        return invalidating(() -> patch("/" + bookingId + "?approved=" + approved, userId), response ->
+                readLong(response, "item", "id").map(itemId -> List.of("/items/" + itemId)).orElse(List.of()));
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> findUserItemsBookings(long userId, List<BookingState> states, BookingFilterDto filter,
+                                                                           Integer from, Integer size, String after) {
+        Map<String, Object> parameters = listParameters(states, filter, from, size, after);
+        return get(listPath("/owner", parameters), userId, parameters);
+    }
+
+    private static String listPath(String path, Map<String, Object> parameters) {
+        return parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&", path + "?", ""));
     }
 
-    public ResponseEntity<Object> findUserItemsBookings(long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    private static Map<String, Object> listParameters(List<BookingState> states, BookingFilterDto filter,
+                                                      Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", states.stream().map(BookingState::name).collect(Collectors.joining(",")));
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        if (filter.getItemIds() != null && !filter.getItemIds().isEmpty()) {
+            parameters.put("itemIds", filter.getItemIds().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        if (filter.getRangeStart() != null) {
+            parameters.put("rangeStart", filter.getRangeStart());
+        }
+        if (filter.getRangeEnd() != null) {
+            parameters.put("rangeEnd", filter.getRangeEnd());
+        }
+        return parameters;
     }
 }
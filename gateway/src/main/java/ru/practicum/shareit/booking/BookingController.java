@@ -1,8 +1,10 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -10,8 +12,13 @@ import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingFilterDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -19,49 +26,67 @@ import ru.practicum.shareit.booking.dto.BookingState;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                              @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                              @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}, from={}, size={}", stateParam, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+    public CompletableFuture<ResponseEntity<byte[]>> getBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                 @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                 @RequestParam(name = "after", required = false) String after,
+                                                                 @ModelAttribute BookingFilterDto filter) {
+        List<BookingState> states = parseStates(stateParam);
+        log.info("Get booking with state {}, userId={}, from={}, size={}, after={}, filter={}", stateParam, userId, from, size, after, filter);
+        return bookingClient.getBookings(userId, states, filter, from, size, after);
     }
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                              @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<byte[]>> bookItems(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                               @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid BookItemRequestDto> requestDtos) {
+        log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+        return bookingClient.bookItems(userId, requestDtos);
+    }
+
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable long bookingId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                @PathVariable long bookingId) {
         log.info("Get booking {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                 @RequestParam boolean approved,
-                                                 @PathVariable long bookingId) {
+    public CompletableFuture<ResponseEntity<byte[]>> approveBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                    @RequestParam boolean approved,
+                                                                    @PathVariable long bookingId) {
         log.info("Setting approved status to {} for bookingId {}, userId={}", approved, bookingId, userId);
         return bookingClient.approveBooking(bookingId, approved, userId);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findUserItemsBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                        @RequestParam(defaultValue = "ALL") String stateParam,
-                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        BookingState state = BookingState.from(stateParam)
-                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get bookings for user's items, userId={}, state = {}, from={}, size={}", userId, stateParam, from, size);
-        return bookingClient.findUserItemsBookings(userId, state, from, size);
+    public CompletableFuture<ResponseEntity<byte[]>> findUserItemsBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                                           @RequestParam(defaultValue = "ALL") String stateParam,
+                                                                           @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                           @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                           @RequestParam(name = "after", required = false) String after,
+                                                                           @ModelAttribute BookingFilterDto filter) {
+        List<BookingState> states = parseStates(stateParam);
+        log.info("Get bookings for user's items, userId={}, state = {}, from={}, size={}, after={}, filter={}", userId, stateParam, from, size, after, filter);
+        return bookingClient.findUserItemsBookings(userId, states, filter, from, size, after);
+    }
+
+    private static List<BookingState> parseStates(String stateParam) {
+        return Arrays.stream(stateParam.split(","))
+                .map(String::strip)
+                .map(s -> BookingState.from(s).orElseThrow(() -> new IllegalArgumentException("Unknown state: " + s)))
+                .toList();
     }
 }
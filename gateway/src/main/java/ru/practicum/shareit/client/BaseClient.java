@@ -1,117 +1,312 @@
 package ru.practicum.shareit.client;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Slf4j
 public abstract class BaseClient {
-    protected final RestTemplate rest;
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding", "content-length");
 
-    public BaseClient(RestTemplate rest) {
-        this.rest = rest;
-    }
+    protected final CloseableHttpAsyncClient client;
+    private final UriBuilderFactory uriBuilderFactory;
+    private final ObjectMapper mapper;
+    private final ResponseCache cache;
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
+    public BaseClient(String endpoint, CloseableHttpAsyncClient client, ObjectMapper mapper, ResponseCache cache) {
+        this.client = client;
+        this.uriBuilderFactory = new DefaultUriBuilderFactory(endpoint);
+        this.mapper = mapper;
+        this.cache = cache;
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<byte[]> prepareGatewayResponse(SimpleHttpResponse response) {
+        ResponseEntity.BodyBuilder responseBuilder = prepareGatewayHead(response);
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        byte[] body = response.getBodyBytes();
+        if (body != null && body.length > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    private static ResponseEntity.BodyBuilder prepareGatewayHead(HttpResponse response) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getCode());
+
+        for (Header header : response.getHeaders()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getName().toLowerCase())) {
+                responseBuilder.header(header.getName(), header.getValue());
+            }
+        }
+        return responseBuilder;
+    }
+
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<byte[]>> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    /**
+     * Serves the GET from the cache while the cached response is fresh and revalidates it with the server afterwards.
+     * The client's {@code If-None-Match} is answered with {@code 304} when it matches the response, and is sent to the
+     * server when the cache holds no ETag of its own.
+     */
+    protected CompletableFuture<ResponseEntity<byte[]>> cachedGet(String path, Long userId, @Nullable String ifNoneMatch) {
+        URI uri = uri(path, null);
+        if (!cache.isEnabled()) {
+            return send(conditional(request(HttpMethod.GET, uri, userId), ifNoneMatch));
+        }
+        ResponseCache.Key key = new ResponseCache.Key(uri.getRawPath(), userId);
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null && cached.isFresh()) {
+            return CompletableFuture.completedFuture(notModifiedIfMatches(cached.response(), ifNoneMatch));
+        }
+
+        boolean revalidating = cached != null && cached.etag() != null;
+        long ticket = cache.begin(key);
+        SimpleRequestBuilder request = conditional(request(HttpMethod.GET, uri, userId), revalidating ? cached.etag() : ifNoneMatch);
+        return send(request)
+                .thenApply(response -> revalidating && response.getStatusCode() == HttpStatus.NOT_MODIFIED
+                        ? cached.revalidated(response.getHeaders())
+                        : response)
+                .whenComplete((response, e) -> cache.complete(key, ticket, response))
+                .thenApply(response -> notModifiedIfMatches(response, ifNoneMatch));
+    }
+
+    /**
+     * Invalidates the cached responses of the paths once the request completes. Reads sent before that are not cached.
+     */
+    protected CompletableFuture<ResponseEntity<byte[]>> invalidating(Supplier<CompletableFuture<ResponseEntity<byte[]>>> request,
+                                                                     String... paths) {
+        return invalidating(request, response -> List.of(paths));
+    }
+
+    /**
+     * Same as {@link #invalidating(Supplier, String...)} for paths that are known only from the response, such as the
+     * item of an approved booking. The response is {@code null} if the request failed.
+     */
+    protected CompletableFuture<ResponseEntity<byte[]>> invalidating(Supplier<CompletableFuture<ResponseEntity<byte[]>>> request,
+                                                                     Function<ResponseEntity<byte[]>, Collection<String>> paths) {
+        return request.get().whenComplete((response, e) -> paths.apply(response).forEach(cache::invalidatePath));
+    }
+
+    protected void invalidateUser(long userId) {
+        cache.invalidateUser(userId);
+    }
+
+    /**
+     * Reads a numeric field of a successful JSON response, such as {@code item.id}.
+     */
+    protected Optional<Long> readLong(@Nullable ResponseEntity<byte[]> response, String... fieldPath) {
+        if (response == null || !response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode node = mapper.readTree(response.getBody());
+            for (String field : fieldPath) {
+                node = node.path(field);
+            }
+            return node.canConvertToLong() ? Optional.of(node.asLong()) : Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read {} from the server response", String.join(".", fieldPath), e);
+            return Optional.empty();
+        }
+    }
+
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> CompletableFuture<ResponseEntity<byte[]>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected CompletableFuture<ResponseEntity<byte[]>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+    /**
+     * Streams the server response to the client. Completes once the server has sent its status and headers, so an
+     * error status is relayed together with its body instead of a {@code 200} that breaks off. JSON is accepted as
+     * well, since that is how the server writes its errors.
+     */
+    protected CompletableFuture<ResponseEntity<StreamingResponseBody>> relay(String path, @Nullable Map<String, Object> parameters,
+                                                                            MediaType accept) {
+        URI uri = uri(path, parameters);
+        SimpleHttpRequest request = SimpleRequestBuilder.get(uri)
+                .setHeader(HttpHeaders.ACCEPT, MediaType.toString(List.of(accept, MediaType.APPLICATION_JSON)))
+                .build();
+        log.debug("{} {}", request.getMethod(), uri);
+        RelayResponseConsumer consumer = new RelayResponseConsumer();
+        Future<Void> exchange = client.execute(SimpleRequestProducer.create(request), consumer, null);
+        return consumer.response().thenApply(response ->
+                prepareGatewayHead(response).<StreamingResponseBody>body(out -> transfer(consumer, exchange, out)));
+    }
 
-        ResponseEntity<Object> shareitServerResponse;
+    private static void transfer(RelayResponseConsumer consumer, Future<Void> exchange, OutputStream out) throws IOException {
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            consumer.transferTo(out);
+        } catch (IOException e) {
+            exchange.cancel(true);
+            throw e;
+        }
+    }
+
+    private <T> CompletableFuture<ResponseEntity<byte[]>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        SimpleRequestBuilder request = request(method, uri(path, parameters), userId);
+        if (body != null) {
+            try {
+                request.setBody(mapper.writeValueAsBytes(body), ContentType.APPLICATION_JSON);
+            } catch (JsonProcessingException e) {
+                return CompletableFuture.failedFuture(e);
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return send(request);
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+    private static SimpleRequestBuilder request(HttpMethod method, URI uri, Long userId) {
+        SimpleRequestBuilder request = SimpleRequestBuilder.create(method.name())
+                .setUri(uri)
+                .setHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
         if (userId != null) {
-            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+            request.setHeader("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return request;
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> send(SimpleRequestBuilder request) {
+        log.debug("{} {}", request.getMethod(), request.getUri());
+        return execute(SimpleRequestProducer.create(request.build()), SimpleResponseConsumer.create())
+                .thenApply(BaseClient::prepareGatewayResponse);
+    }
+
+    private static SimpleRequestBuilder conditional(SimpleRequestBuilder request, @Nullable String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
         }
-        return headers;
+        return request;
+    }
+
+    private static ResponseEntity<byte[]> notModifiedIfMatches(ResponseEntity<byte[]> response, @Nullable String ifNoneMatch) {
+        String etag = response.getHeaders().getETag();
+        if (ifNoneMatch == null || etag == null || response.getStatusCode() != HttpStatus.OK) {
+            return response;
+        }
+        boolean matches = Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || weak(tag).equals(weak(etag)));
+        if (!matches) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+    }
+
+    private static String weak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private <R> CompletableFuture<R> execute(AsyncRequestProducer producer, AsyncResponseConsumer<R> consumer) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        client.execute(producer, consumer, new FutureCallback<>() {
+            @Override
+            public void completed(R response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private URI uri(String path, @Nullable Map<String, Object> parameters) {
+        return uriBuilderFactory.expand(path, parameters != null ? parameters : Map.of());
     }
 }
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Hands the server response body over to a blocking writer chunk by chunk. At most {@link #WINDOW} bytes are
+ * buffered: once the window is used up, reading from the connection is suspended until the writer drains it.
+ * The response head is available before the body, so the status and headers of the server can be relayed as is.
+ */
+class RelayResponseConsumer implements AsyncResponseConsumer<Void> {
+    private static final int WINDOW = 64 * 1024;
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+    private int buffered;
+    private CapacityChannel suspended;
+    private volatile Exception failure;
+    private FutureCallback<Void> resultCallback;
+
+    @Override
+    public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                FutureCallback<Void> resultCallback) {
+        this.response.complete(response);
+        if (entityDetails == null) {
+            chunks.add(END);
+            resultCallback.completed(null);
+        } else {
+            this.resultCallback = resultCallback;
+        }
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        int free;
+        synchronized (this) {
+            free = WINDOW - buffered;
+            if (free <= 0) {
+                suspended = capacityChannel;
+                return;
+            }
+        }
+        capacityChannel.update(free);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) {
+        byte[] chunk = new byte[src.remaining()];
+        src.get(chunk);
+        synchronized (this) {
+            buffered += chunk.length;
+        }
+        chunks.add(chunk);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) {
+        chunks.add(END);
+        resultCallback.completed(null);
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        failure = cause;
+        chunks.add(END);
+        response.completeExceptionally(cause);
+    }
+
+    @Override
+    public void releaseResources() {
+    }
+
+    /**
+     * Completes with the response head once it is received, or exceptionally if the exchange fails before that.
+     */
+    CompletableFuture<HttpResponse> response() {
+        return response;
+    }
+
+    void transferTo(OutputStream out) throws IOException {
+        while (true) {
+            byte[] chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (chunk == END) {
+                break;
+            }
+            if (failure == null) {
+                out.write(chunk);
+                out.flush();
+            }
+            release(chunk.length);
+        }
+        if (failure != null) {
+            throw failure instanceof IOException e ? e : new IOException(failure);
+        }
+    }
+
+    private void release(int length) throws IOException {
+        CapacityChannel resume;
+        int free;
+        synchronized (this) {
+            buffered -= length;
+            resume = suspended;
+            free = WINDOW - buffered;
+            if (resume != null) {
+                suspended = null;
+            }
+        }
+        if (resume != null) {
+            resume.update(free);
+        }
+    }
+}
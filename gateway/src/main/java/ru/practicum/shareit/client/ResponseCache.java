@@ -0,0 +1,146 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded LRU cache of successful GET responses keyed by server path and {@code X-Sharer-User-Id}.
+ *
+ * <p>An entry is served without contacting the server while it is fresh. After that it is kept for revalidation
+ * with {@code If-None-Match} until it is evicted or invalidated by a modifying request. Entries are indexed by path
+ * and by user, so an invalidation removes only the affected keys. A read takes a ticket for its key before it is
+ * sent; an invalidation of the key withdraws the ticket, so a read racing with a write cannot put a stale body back.
+ *
+ * <p>Invalidation is local to this gateway instance. Other instances keep serving their entries until the TTL
+ * expires and the server revalidates them.
+ */
+@Component
+public class ResponseCache {
+    private final ResponseCacheProperties properties;
+    private final Map<Key, Entry> entries;
+    private final Map<String, Set<Key>> keysByPath = new HashMap<>();
+    private final Map<Long, Set<Key>> keysByUser = new HashMap<>();
+    private final Map<Key, Long> pending = new HashMap<>();
+    private long tickets;
+
+    public ResponseCache(ResponseCacheProperties properties) {
+        this.properties = properties;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > properties.getMaxEntries()) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public synchronized Entry get(Key key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Registers a read of the key that is about to be sent to the server.
+     */
+    public synchronized long begin(Key key) {
+        long ticket = ++tickets;
+        pending.put(key, ticket);
+        return ticket;
+    }
+
+    /**
+     * Ends a read started with {@link #begin}. A successful response is stored unless the key was invalidated or read
+     * again meanwhile.
+     */
+    public synchronized void complete(Key key, long ticket, @Nullable ResponseEntity<byte[]> response) {
+        if (!pending.remove(key, ticket) || response == null || response.getStatusCode() != HttpStatus.OK) {
+            return;
+        }
+        if (!entries.containsKey(key)) {
+            // Indexed before the insert, which may evict the eldest entry and unindex it.
+            keysByPath.computeIfAbsent(key.path(), path -> new HashSet<>()).add(key);
+            if (key.userId() != null) {
+                keysByUser.computeIfAbsent(key.userId(), userId -> new HashSet<>()).add(key);
+            }
+        }
+        String etag = response.getHeaders().getETag();
+        entries.put(key, new Entry(response, etag, System.nanoTime() + properties.getTtl().toNanos()));
+    }
+
+    /**
+     * Removes the responses of the path for every user.
+     */
+    public synchronized void invalidatePath(String path) {
+        remove(keysByPath.get(path));
+        pending.keySet().removeIf(key -> key.path().equals(path));
+    }
+
+    /**
+     * Removes the responses requested on behalf of the user.
+     */
+    public synchronized void invalidateUser(Long userId) {
+        remove(keysByUser.get(userId));
+        pending.keySet().removeIf(key -> userId.equals(key.userId()));
+    }
+
+    private void remove(@Nullable Set<Key> keys) {
+        if (keys == null) {
+            return;
+        }
+        for (Key key : List.copyOf(keys)) {
+            entries.remove(key);
+            unindex(key);
+        }
+    }
+
+    private void unindex(Key key) {
+        removeFromIndex(keysByPath, key.path(), key);
+        if (key.userId() != null) {
+            removeFromIndex(keysByUser, key.userId(), key);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Key>> index, K indexKey, Key key) {
+        Set<Key> keys = index.get(indexKey);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(indexKey);
+        }
+    }
+
+    public record Key(String path, @Nullable Long userId) {
+    }
+
+    public record Entry(ResponseEntity<byte[]> response, String etag, long freshUntil) {
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntil < 0;
+        }
+
+        public ResponseEntity<byte[]> revalidated(HttpHeaders notModifiedHeaders) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            notModifiedHeaders.forEach((name, values) -> {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                    headers.put(name, values);
+                }
+            });
+            return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+        }
+    }
+}
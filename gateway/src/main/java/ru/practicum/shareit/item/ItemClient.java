@@ -1,32 +1,39 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewCommentDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String ENDPOINT = "${shareit-server.url}/items";
 
     @Autowired
-    public ItemClient(@Value(ENDPOINT) String endpoint, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(endpoint))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public ItemClient(@Value(ENDPOINT) String endpoint, CloseableHttpAsyncClient client, ObjectMapper mapper,
+                      ResponseCache cache) {
+        super(endpoint, client, mapper, cache);
     }
 
-    public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserItems(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -34,23 +41,80 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemById(long itemId, long userId) {
-        return get("/" + itemId, userId);
+    public CompletableFuture<ResponseEntity<byte[]>> getItemById(long itemId, long userId, String ifNoneMatch) {
+        return cachedGet("/" + itemId, userId, ifNoneMatch);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> search(String text, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                            Integer from, Integer size) {
+        Map<String, Object> parameters = searchParameters(text, rangeStart, rangeEnd, from, size);
+        return get(searchQuery(parameters), null, parameters);
+    }
+
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamSearch(String text, LocalDateTime rangeStart,
+                                                                                LocalDateTime rangeEnd, Integer from, Integer size) {
+        Map<String, Object> parameters = searchParameters(text, rangeStart, rangeEnd, from, size);
+        return relay(searchQuery(parameters), parameters, MediaType.APPLICATION_NDJSON);
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> create(long userId, ItemDto itemDto) {
+        return invalidating(() -> post("", userId, itemDto), requestPaths(List.of(itemDto)));
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> createAll(long userId, List<ItemDto> itemDtos) {
+        return invalidating(() -> post("/batch", userId, itemDtos), requestPaths(itemDtos));
+    }
+
+    /**
+     * Invalidates the item and the request it answers, which lists the item name.
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> update(long itemId, Long userId, UpdateItemDto itemDto) {
+        return invalidating(() -> patch("/" + itemId, userId, itemDto), response -> {
+            List<String> paths = new ArrayList<>(List.of("/items/" + itemId));
+            readLong(response, "requestId").ifPresent(requestId -> paths.add("/requests/" + requestId));
+            return paths;
+        });
     }
 
-    public ResponseEntity<Object> search(String text) {
-        return get("/search?text=" + text);
+    public CompletableFuture<ResponseEntity<byte[]>> createComment(long itemId, long userId, NewCommentDto commentDto) {
+        return invalidating(() -> post("/" + itemId + "/comment", userId, commentDto), "/items/" + itemId);
     }
 
-    public ResponseEntity<Object> create(long userId, ItemDto itemDto) {
-        return post("", userId, itemDto);
+    private static String[] requestPaths(List<ItemDto> itemDtos) {
+        return itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(requestId -> "/requests/" + requestId)
+                .toArray(String[]::new);
     }
 
-    public ResponseEntity<Object> update(long itemId, Long userId, UpdateItemDto itemDto) {
-        return patch("/" + itemId, userId, itemDto);
+    private static Map<String, Object> searchParameters(String text, LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                        Integer from, Integer size) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (rangeStart != null) {
+            parameters.put("rangeStart", rangeStart);
+        }
+        if (rangeEnd != null) {
+            parameters.put("rangeEnd", rangeEnd);
+        }
+        return parameters;
     }
 
-    public ResponseEntity<Object> createComment(long itemId, long userId, NewCommentDto commentDto) {
-        return post("/" + itemId + "/comment", userId, commentDto);
+    private static String searchQuery(Map<String, Object> parameters) {
+        return parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&", "/search?", ""));
     }
 }
@@ -1,65 +1,107 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewCommentDto;
 import ru.practicum.shareit.item.dto.UpdateItemDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final int MAX_BATCH_SIZE = 10_000;
+
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                  @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
         log.info("Get user items with userId={}, from={}, size={}", userId, from, size);
         return itemClient.getUserItems(userId, from, size);
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@PathVariable Long itemId,
-                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getItemById(@PathVariable Long itemId,
+                                                                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get item with itemId={}, userId={}", itemId, userId);
-        return itemClient.getItemById(itemId, userId);
+        return itemClient.getItemById(itemId, userId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public CompletableFuture<ResponseEntity<byte[]>> getItemAvailability(@PathVariable Long itemId,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Get availability of item with itemId={}, from={}, to={}", itemId, from, to);
+        return itemClient.getItemAvailability(itemId, from, to);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> search(@RequestParam String text) {
-        log.info("Search items with prompt text={}", text);
-        return itemClient.search(text);
+    public CompletableFuture<ResponseEntity<byte[]>> search(@RequestParam String text,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                                            @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                            @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Search items with prompt text={}, rangeStart={}, rangeEnd={}, from={}, size={}", text, rangeStart, rangeEnd, from, size);
+        return itemClient.search(text, rangeStart, rangeEnd, from, size);
+    }
+
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamSearch(@RequestParam String text,
+                                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.info("Stream search items with prompt text={}, rangeStart={}, rangeEnd={}, from={}, size={}", text, rangeStart, rangeEnd, from, size);
+        return itemClient.streamSearch(text, rangeStart, rangeEnd, from, size);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @RequestBody @Valid ItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @RequestBody @Valid ItemDto itemDto) {
         log.info("Creating item {}, userId={}", itemDto, userId);
         return itemClient.create(userId, itemDto);
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<byte[]>> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE) List<@Valid ItemDto> itemDtos) {
+        log.info("Creating {} items, userId={}", itemDtos.size(), userId);
+        return itemClient.createAll(userId, itemDtos);
+    }
+
     @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PathVariable Long itemId,
-                                         @RequestBody @Valid UpdateItemDto itemDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> update(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                            @PathVariable Long itemId,
+                                                            @RequestBody @Valid UpdateItemDto itemDto) {
         log.info("Updating item with itemId={}, userId={}, updated item={}", itemId, userId, itemDto);
         return itemClient.update(itemId, userId, itemDto);
     }
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> createComment(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @PathVariable Long itemId,
-                                                @RequestBody @Valid NewCommentDto commentDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> createComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                   @PathVariable Long itemId,
+                                                                   @RequestBody @Valid NewCommentDto commentDto) {
         log.info("Creating comment to item with itemId={}, userId={}, comment={}", itemId, userId, commentDto);
         return itemClient.createComment(itemId, userId, commentDto);
     }
@@ -1,34 +1,33 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String ENDPOINT = "${shareit-server.url}/requests";
 
     @Autowired
-    public ItemRequestClient(@Value(ENDPOINT) String endpoint, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(endpoint))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public ItemRequestClient(@Value(ENDPOINT) String endpoint, CloseableHttpAsyncClient client, ObjectMapper mapper,
+                             ResponseCache cache) {
+        super(endpoint, client, mapper, cache);
     }
 
-    public ResponseEntity<Object> create(Long userId, NewItemRequestDto requestDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(Long userId, NewItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> getUserItemRequests(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserItemRequests(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -36,7 +35,7 @@ public class ItemRequestClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequests(Long userId, Integer from, Integer size) {
+    public CompletableFuture<ResponseEntity<byte[]>> getItemRequests(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -44,7 +43,7 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getItemRequestById(Long requestId) {
-        return get("/" + requestId);
+    public CompletableFuture<ResponseEntity<byte[]>> getItemRequestById(Long requestId, String ifNoneMatch) {
+        return cachedGet("/" + requestId, null, ifNoneMatch);
     }
 }
@@ -1,41 +1,46 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ResponseCache;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String ENDPOINT = "${shareit-server.url}/users";
 
     @Autowired
-    public UserClient(@Value(ENDPOINT) String endpoint, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(endpoint))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
-                .build()
-        );
+    public UserClient(@Value(ENDPOINT) String endpoint, CloseableHttpAsyncClient client, ObjectMapper mapper,
+                      ResponseCache cache) {
+        super(endpoint, client, mapper, cache);
     }
 
-    public ResponseEntity<Object> getUserById(long userId) {
-        return get("/" + userId);
+    public CompletableFuture<ResponseEntity<byte[]>> getUserById(long userId, String ifNoneMatch) {
+        return cachedGet("/" + userId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> create(UserDto userDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> update(long userId, UpdateUserDto userDto) {
-        return patch("/" + userId, userDto);
+    /**
+     * Invalidates only the user itself. Items cached with the user's comments pick up the new name when their TTL
+     * expires and the server revalidates them.
+     */
+    public CompletableFuture<ResponseEntity<byte[]>> update(long userId, UpdateUserDto userDto) {
+        return invalidating(() -> patch("/" + userId, userDto), "/users/" + userId);
     }
 
-    public ResponseEntity<Object> delete(long userId) {
-        return delete("/" + userId);
+    public CompletableFuture<ResponseEntity<byte[]>> delete(long userId) {
+        return invalidating(() -> delete("/" + userId), "/users/" + userId)
+                .whenComplete((response, e) -> invalidateUser(userId));
     }
 }
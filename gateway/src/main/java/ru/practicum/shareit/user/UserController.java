@@ -3,11 +3,14 @@ package ru.practicum.shareit.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.concurrent.CompletableFuture;
+
 
 @Slf4j
 @RestController
@@ -17,26 +20,27 @@ public class UserController {
     private final UserClient userClient;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Object> getUserById(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> getUserById(@PathVariable Long userId,
+                                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get user with userId={}", userId);
-        return userClient.getUserById(userId);
+        return userClient.getUserById(userId, ifNoneMatch);
     }
 
     @PostMapping
-    public ResponseEntity<Object> create(@Valid @RequestBody UserDto userDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> create(@Valid @RequestBody UserDto userDto) {
         log.info("Creating user {}", userDto);
         return userClient.create(userDto);
     }
 
     @PatchMapping("/{userId}")
-    public ResponseEntity<Object> update(@PathVariable Long userId,
-                                         @Valid @RequestBody UpdateUserDto userDto) {
+    public CompletableFuture<ResponseEntity<byte[]>> update(@PathVariable Long userId,
+                                                            @Valid @RequestBody UpdateUserDto userDto) {
         log.info("Updating user with userId {}, updated user={}", userId, userDto);
         return userClient.update(userId, userDto);
     }
 
     @DeleteMapping("/{userId}")
-    public ResponseEntity<Object> delete(@PathVariable Long userId) {
+    public CompletableFuture<ResponseEntity<byte[]>> delete(@PathVariable Long userId) {
         log.info("Deleting user with userId={}", userId);
         return userClient.delete(userId);
     }
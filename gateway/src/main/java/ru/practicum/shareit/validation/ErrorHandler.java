@@ -1,12 +1,17 @@
 package ru.practicum.shareit.validation;
 
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestValueException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.List;
 
@@ -30,4 +35,33 @@ public class ErrorHandler {
         log.debug(e.getMessage());
         return new ErrorResponse("Ошибка валидации данных", violations);
     }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ErrorResponse handleMethodValidationExceptions(HandlerMethodValidationException e) {
+        List<Violation> violations = e.getAllValidationResults().stream()
+                .flatMap(result -> result.getResolvableErrors().stream()
+                        .map(error -> new Violation(fieldName(result, error), error.getDefaultMessage())))
+                .toList();
+        log.debug(e.getMessage());
+        return new ErrorResponse("Ошибка валидации данных", violations);
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ErrorResponse handleConstraintViolationExceptions(ConstraintViolationException e) {
+        List<Violation> violations = e.getConstraintViolations().stream()
+                .map(violation -> new Violation(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+        log.debug(e.getMessage());
+        return new ErrorResponse("Ошибка валидации данных", violations);
+    }
+
+    private static String fieldName(ParameterValidationResult result, MessageSourceResolvable error) {
+        String name = result.getMethodParameter().getParameterName();
+        if (result.getContainerIndex() != null) {
+            name += "[" + result.getContainerIndex() + "]";
+        }
+        return error instanceof FieldError fieldError ? name + "." + fieldError.getField() : name;
+    }
 }
@@ -0,0 +1,157 @@
+package ru.practicum.shareit.booking.calendar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory calendar of approved bookings per item that answers availability queries without the database.
+ *
+ * <p>Every item has an immutable {@link BookingIntervals} that is replaced on change, so readers never lock.
+ * Until the calendar is built, or when it is disabled, queries load the approved bookings of the window instead.
+ * Changes made while it is being built are kept aside and replayed on top of the loaded bookings.
+ */
+@Slf4j
+@Component
+public class BookingCalendar {
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final BookingRepository bookingRepository;
+    private final boolean enabled;
+    private final Map<Long, BookingIntervals> calendars = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final List<Runnable> pending = new ArrayList<>();
+    private volatile boolean ready;
+
+    public BookingCalendar(BookingRepository bookingRepository,
+                           @Value("${shareit.booking.calendar.enabled:true}") boolean enabled) {
+        this.bookingRepository = bookingRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            ready = false;
+            calendars.clear();
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, List<ItemBookingDates>> bookingsByItem = new HashMap<>();
+        long lastId = 0;
+        int loaded = 0;
+        List<ItemBookingDates> bookings;
+        do {
+            bookings = bookingRepository.findBookingDatesAfter(BookingStatus.APPROVED, lastId, Limit.of(LOAD_PAGE_SIZE));
+            bookings.forEach(booking -> bookingsByItem.computeIfAbsent(booking.getItemId(), id -> new ArrayList<>()).add(booking));
+            if (!bookings.isEmpty()) {
+                lastId = bookings.getLast().getId();
+            }
+            loaded += bookings.size();
+        } while (bookings.size() == LOAD_PAGE_SIZE);
+        lock.lock();
+        try {
+            bookingsByItem.forEach((itemId, itemBookings) -> calendars.put(itemId, BookingIntervals.of(itemBookings)));
+            pending.forEach(Runnable::run);
+            pending.clear();
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Booking calendar built, {} approved bookings of {} items", loaded, calendars.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds an approved booking. Inside a transaction the change is applied only after commit, so queries never see
+     * uncommitted or rolled back approvals.
+     */
+    public void put(Booking booking) {
+        if (!enabled || booking.getStatus() != BookingStatus.APPROVED) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        long bookingId = booking.getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        Runnable add = () -> change(() -> calendars.compute(itemId, (id, current) ->
+                (current == null ? BookingIntervals.EMPTY : current).with(bookingId, start, end)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add.run();
+                }
+            });
+        } else {
+            add.run();
+        }
+    }
+
+    /**
+     * Removes the approved bookings the database deleted together with their booker.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        event.approvedBookings().forEach(booking -> change(() ->
+                calendars.computeIfPresent(booking.getItemId(), (id, current) -> current.without(booking.getId()))));
+    }
+
+    /**
+     * Returns the periods within the window that are not covered by approved bookings of the item.
+     */
+    public List<AvailabilitySlotDto> findFreeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        BookingIntervals intervals = ready
+                ? calendars.getOrDefault(itemId, BookingIntervals.EMPTY)
+                : BookingIntervals.of(bookingRepository.findItemBookingDates(itemId, BookingStatus.APPROVED, from, to));
+        return intervals.freeSlots(from, to);
+    }
+
+    /**
+     * Applies the change now, or after the loading scan if the calendar is being built: the scan may already have
+     * passed the booking, or may not see it yet because its transaction has not committed.
+     */
+    private void change(Runnable change) {
+        lock.lock();
+        try {
+            if (ready) {
+                change.run();
+            } else {
+                pending.add(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.booking.calendar;
+
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable approved bookings of one item sorted by start.
+ *
+ * <p>A window query is a binary search over the running maximum of the ends for the first booking that may reach the
+ * window, plus a walk over the bookings inside it. The running maximum is sorted even when bookings overlap, which
+ * older data or a lost race between approvals can leave behind.
+ */
+final class BookingIntervals {
+    static final BookingIntervals EMPTY = new BookingIntervals(new long[0], new LocalDateTime[0], new LocalDateTime[0]);
+
+    private final long[] ids;
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+    private final LocalDateTime[] maxEnds;
+
+    private BookingIntervals(long[] ids, LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new LocalDateTime[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            maxEnds[i] = i > 0 && maxEnds[i - 1].isAfter(ends[i]) ? maxEnds[i - 1] : ends[i];
+        }
+    }
+
+    static BookingIntervals of(List<ItemBookingDates> bookings) {
+        List<ItemBookingDates> sorted = bookings.stream()
+                .sorted(Comparator.comparing(ItemBookingDates::getStart).thenComparing(ItemBookingDates::getId))
+                .toList();
+        long[] ids = new long[sorted.size()];
+        LocalDateTime[] starts = new LocalDateTime[sorted.size()];
+        LocalDateTime[] ends = new LocalDateTime[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ids[i] = sorted.get(i).getId();
+            starts[i] = sorted.get(i).getStart();
+            ends[i] = sorted.get(i).getEnd();
+        }
+        return new BookingIntervals(ids, starts, ends);
+    }
+
+    BookingIntervals with(long id, LocalDateTime start, LocalDateTime end) {
+        if (indexOf(id) >= 0) {
+            return this;
+        }
+        int position = firstStartingAfter(start);
+        return new BookingIntervals(insert(ids, position, id), insert(starts, position, start), insert(ends, position, end));
+    }
+
+    BookingIntervals without(long id) {
+        int position = indexOf(id);
+        if (position < 0) {
+            return this;
+        }
+        return new BookingIntervals(remove(ids, position), remove(starts, position), remove(ends, position));
+    }
+
+    /**
+     * Returns the gaps between the bookings within the window. Slot bounds are the window bounds or the ends of the
+     * neighbouring bookings. Bookings are half-open, so a slot from the end of one booking to the start of the next can
+     * be booked as is.
+     */
+    List<AvailabilitySlotDto> freeSlots(LocalDateTime from, LocalDateTime to) {
+        List<AvailabilitySlotDto> slots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        for (int i = firstEndingNotBefore(from); i < ids.length && !starts[i].isAfter(to); i++) {
+            if (starts[i].isAfter(cursor)) {
+                slots.add(new AvailabilitySlotDto(cursor, starts[i]));
+            }
+            if (ends[i].isAfter(cursor)) {
+                cursor = ends[i];
+            }
+        }
+        if (cursor.isBefore(to)) {
+            slots.add(new AvailabilitySlotDto(cursor, to));
+        }
+        return slots;
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int firstStartingAfter(LocalDateTime time) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle].isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index from which the running maximum of the ends is not before the time. Every booking before that
+     * index ends before the time, whether or not the bookings overlap.
+     */
+    private int firstEndingNotBefore(LocalDateTime time) {
+        int low = 0;
+        int high = maxEnds.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (maxEnds[middle].isBefore(time)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long[] insert(long[] values, int position, long value) {
+        long[] result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    private static LocalDateTime[] insert(LocalDateTime[] values, int position, LocalDateTime value) {
+        LocalDateTime[] result = new LocalDateTime[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    private static long[] remove(long[] values, int position) {
+        long[] result = Arrays.copyOf(values, values.length - 1);
+        System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+        return result;
+    }
+
+    private static LocalDateTime[] remove(LocalDateTime[] values, int position) {
+        LocalDateTime[] result = Arrays.copyOf(values, values.length - 1);
+        System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+        return result;
+    }
+}
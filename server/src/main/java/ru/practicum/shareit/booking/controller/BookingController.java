@@ -2,39 +2,60 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String REJECTED_BOOKINGS_HEADER = "X-Rejected-Bookings";
+
     private final BookingService bookingService;
 
     @GetMapping("/{bookingId}")
     public BookingDto findBookingById(@PathVariable Long bookingId,
-                                      @RequestHeader("X-Sharer-User-Id") Long userId) {
+                                      @RequestHeader("X-Sharer-User-Id") Long userId,
+                                      WebRequest request) {
+        if (bookingService.getBookingEtag(bookingId, userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return bookingService.findBookingById(bookingId, userId);
     }
 
     @GetMapping
-    public List<BookingDto> findUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                             @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                             @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingService.findUserBookings(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> findUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @ModelAttribute BookingFilter filter,
+                                                             @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                             @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                             @RequestParam(name = "after", required = false) String after) {
+        List<BookingDto> bookings = after == null
+                ? bookingService.findUserBookings(userId, filter, from, size)
+                : bookingService.findUserBookingsAfter(userId, filter, after, size);
+        return withNextCursor(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> findUserItemsBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                  @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return bookingService.findUserItemsBookings(userId, state, from, size);
+    public ResponseEntity<List<BookingDto>> findUserItemsBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @ModelAttribute BookingFilter filter,
+                                                                  @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                  @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                  @RequestParam(name = "after", required = false) String after) {
+        List<BookingDto> bookings = after == null
+                ? bookingService.findUserItemsBookings(userId, filter, from, size)
+                : bookingService.findUserItemsBookingsAfter(userId, filter, after, size);
+        return withNextCursor(bookings, size);
     }
 
     @PostMapping
@@ -44,11 +65,33 @@ public class BookingController {
         return bookingService.create(newBookingDto, bookerId);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BookingDto> createAll(@RequestBody List<NewBookingDto> newBookingDtos,
+                                      @RequestHeader("X-Sharer-User-Id") Long bookerId) {
+        return bookingService.createAll(newBookingDtos, bookerId);
+    }
+
     @PatchMapping("/{bookingId}")
-    public BookingDto approveBookingRequest(@PathVariable Long bookingId,
-                                            @RequestParam boolean approved,
-                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.approveBookingRequest(bookingId, approved, userId);
+    public ResponseEntity<BookingDto> approveBookingRequest(@PathVariable Long bookingId,
+                                                            @RequestParam boolean approved,
+                                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        BookingDecisionDto decision = bookingService.approveBookingRequest(bookingId, approved, userId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!decision.getRejectedBookingIds().isEmpty()) {
+            response.header(REJECTED_BOOKINGS_HEADER, decision.getRejectedBookingIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+        return response.body(decision.getBooking());
+    }
+
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookings.isEmpty() && bookings.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.getLast()).encode());
+        }
+        return response.body(bookings);
     }
 
 }
@@ -5,6 +5,7 @@ import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import ru.practicum.shareit.booking.dto.BookingDatesDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -21,12 +22,15 @@ public interface BookingMapper {
     @Mapping(target = "item", source = "item")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Booking mapToBooking(NewBookingDto newBookingDto, User user, Item item);
 
     List<BookingDto> mapToBookingDtoList(Iterable<Booking> bookings);
 
     BookingDatesDto mapToBookingDatesDto(Booking booking);
 
+    BookingDatesDto mapToBookingDatesDto(ItemBookingDates bookingDates);
+
     @Mapping(target = "requestId", source = "request.id")
     ItemDto mapToItemDto(Item item);
 }
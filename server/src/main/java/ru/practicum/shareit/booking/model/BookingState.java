@@ -2,6 +2,9 @@ package ru.practicum.shareit.booking.model;
 
 import ru.practicum.shareit.exception.ConditionsNotMetException;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingState {
     ALL,
     CURRENT,
@@ -17,4 +20,12 @@ public enum BookingState {
             throw new ConditionsNotMetException("Некорректное значение параметра state: " + state);
         }
     }
+
+    public static Set<BookingState> ofAll(final String states) {
+        Set<BookingState> result = EnumSet.noneOf(BookingState.class);
+        for (String state : states.split(",")) {
+            result.add(of(state.strip()));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Filter of a bookings list as seen by a booker or by an owner of the booked items. States are combined with OR,
+ * the remaining conditions with AND. Results are ordered by start and id descending and limited to one page,
+ * addressed either by offset or by the {@code after} cursor.
+ */
+@Getter
+@Builder
+public class BookingQuery {
+    private final Role role;
+    private final Long userId;
+    @Builder.Default
+    private final Set<BookingState> states = EnumSet.of(BookingState.ALL);
+    @Builder.Default
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Collection<Long> itemIds;
+    private final LocalDateTime rangeStart;
+    private final LocalDateTime rangeEnd;
+    private final BookingCursor after;
+    private final int offset;
+    private final int limit;
+
+    public enum Role {
+        BOOKER,
+        OWNER
+    }
+}
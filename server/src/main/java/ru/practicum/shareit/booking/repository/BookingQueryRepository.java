@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingQueryRepository {
+    List<Booking> findBookings(BookingQuery query);
+
+    /**
+     * Changes the status of the bookings of the item that overlap the period and still have the expected status, in
+     * a single statement, and returns the ids of the changed rows. The version is incremented by hand, because bulk
+     * updates bypass optimistic locking.
+     */
+    List<Long> updateOverlappingStatus(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedId,
+                                       BookingStatus expected, BookingStatus status);
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.booking.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    private static final String UPDATE_OVERLAPPING_STATUS =
+            "UPDATE bookings SET status = :status, version = version + 1 " +
+            "WHERE item_id = :itemId AND status = :expected AND start_date < :end AND end_date > :start " +
+            "AND id <> :excludedId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Booking> findBookings(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Booking> criteria = cb.createQuery(Booking.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item", JoinType.INNER);
+        booking.fetch("booker", JoinType.INNER);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(query.getRole() == BookingQuery.Role.BOOKER
+                ? cb.equal(booking.get("booker").get("id"), query.getUserId())
+                : cb.equal(item.get("owner").get("id"), query.getUserId()));
+        if (!query.getStates().contains(BookingState.ALL)) {
+            predicates.add(cb.or(query.getStates().stream()
+                    .map(state -> inState(cb, booking, state, query.getNow()))
+                    .toArray(Predicate[]::new)));
+        }
+        if (query.getItemIds() != null && !query.getItemIds().isEmpty()) {
+            predicates.add(booking.get("item").get("id").in(query.getItemIds()));
+        }
+        if (query.getRangeStart() != null) {
+            predicates.add(cb.greaterThan(booking.get("end"), query.getRangeStart()));
+        }
+        if (query.getRangeEnd() != null) {
+            predicates.add(cb.lessThan(booking.get("start"), query.getRangeEnd()));
+        }
+        if (query.getAfter() != null) {
+            predicates.add(after(cb, booking, query.getAfter()));
+        }
+
+        criteria.select(booking)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+        return entityManager.createQuery(criteria)
+                .setFirstResult(query.getOffset())
+                .setMaxResults(query.getLimit())
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> updateOverlappingStatus(Long itemId, LocalDateTime start, LocalDateTime end, Long excludedId,
+                                              BookingStatus expected, BookingStatus status) {
+        // PostgreSQL returns the changed rows with RETURNING, H2 with a data change delta table.
+        String sql = isPostgreSql()
+                ? UPDATE_OVERLAPPING_STATUS + " RETURNING id"
+                : "SELECT id FROM FINAL TABLE (" + UPDATE_OVERLAPPING_STATUS + ")";
+        entityManager.flush();
+        List<Number> ids = entityManager.createNativeQuery(sql)
+                .setParameter("status", status.name())
+                .setParameter("itemId", itemId)
+                .setParameter("expected", expected.name())
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setParameter("excludedId", excludedId)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private boolean isPostgreSql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    private static Predicate inState(CriteriaBuilder cb, Root<Booking> booking, BookingState state, LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        return switch (state) {
+            case ALL -> cb.conjunction();
+            case PAST -> cb.lessThan(end, now);
+            case FUTURE -> cb.greaterThan(start, now);
+            case CURRENT -> cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case WAITING -> cb.equal(booking.get("status"), BookingStatus.WAITING);
+            case REJECTED -> cb.equal(booking.get("status"), BookingStatus.REJECTED);
+        };
+    }
+
+    private static Predicate after(CriteriaBuilder cb, Root<Booking> booking, BookingCursor cursor) {
+        Path<LocalDateTime> start = booking.get("start");
+        return cb.or(
+                cb.lessThan(start, cursor.start()),
+                cb.and(cb.equal(start, cursor.start()), cb.lessThan(booking.get("id"), cursor.id())));
+    }
+}
@@ -1,40 +1,62 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
-
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByBooker_idAndEndBefore(Long bookerId, LocalDateTime end, Pageable page);
-
-    List<Booking> findByBooker_Id(Long bookerId, Pageable page);
-
-    List<Booking> findByBooker_idAndStatus(Long bookerId, BookingStatus bookingStatus, Pageable page);
-
-    List<Booking> findByBooker_IdAndStartAfter(Long bookerId, LocalDateTime start, Pageable page);
-
-    List<Booking> findByBooker_IdAndStartBeforeAndEndAfter(Long bookerId, LocalDateTime start, LocalDateTime end, Pageable page);
-
-    List<Booking> findByItem_Owner_Id(Long itemOwnerId, Pageable page);
-
-    List<Booking> findByItem_Owner_IdAndEndBefore(Long itemOwnerId, LocalDateTime end, Pageable page);
-
-    List<Booking> findByItem_Owner_IdAndStatus(Long itemOwnerId, BookingStatus bookingStatus, Pageable page);
-
-    List<Booking> findByItem_Owner_IdAndStartAfter(Long itemOwnerId, LocalDateTime start, Pageable page);
-
-    List<Booking> findByItem_Owner_IdAndStartBeforeAndEndAfter(Long itemOwnerId, LocalDateTime start, LocalDateTime end, Pageable page);
-
-    List<Booking> findAllByItem_IdInAndStatusAndEndBeforeOrderByIdAscEndDesc(Collection<Long> itemIds, BookingStatus bookingStatus, LocalDateTime end);
-
-    List<Booking> findAllByItem_IdInAndStatusAndStartGreaterThanEqualOrderByIdAscStartAsc(Collection<Long> itemIds, BookingStatus bookingStatus, LocalDateTime start);
+import java.util.Optional;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
+    @Query(value = "SELECT r.id AS \"id\", r.item_id AS \"itemId\", r.start_date AS \"start\", r.end_date AS \"end\" " +
+                   "FROM (SELECT b.id, b.item_id, b.start_date, b.end_date, " +
+                   "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC, b.id DESC) AS rn " +
+                   "FROM bookings b " +
+                   "WHERE b.item_id IN (:itemIds) AND b.status = :status AND b.end_date < :now) r " +
+                   "WHERE r.rn = 1", nativeQuery = true)
+    List<ItemBookingDates> findLastBookings(Collection<Long> itemIds, String status, LocalDateTime now);
+
+    @Query(value = "SELECT r.id AS \"id\", r.item_id AS \"itemId\", r.start_date AS \"start\", r.end_date AS \"end\" " +
+                   "FROM (SELECT b.id, b.item_id, b.start_date, b.end_date, " +
+                   "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+                   "FROM bookings b " +
+                   "WHERE b.item_id IN (:itemIds) AND b.status = :status AND b.start_date >= :now) r " +
+                   "WHERE r.rn = 1", nativeQuery = true)
+    List<ItemBookingDates> findNextBookings(Collection<Long> itemIds, String status, LocalDateTime now);
+
+    @Query("select str(b.version) || '-' || str(i.version) || '-' || str(u.version) " +
+           "from Booking b join b.item i join b.booker u " +
+           "where b.id = ?1 and (u.id = ?2 or i.owner.id = ?2)")
+    Optional<String> findEtag(Long bookingId, Long userId);
+
+    @Query("select str(count(b)) || '-' || str(coalesce(sum(b.version), 0)) || '-' || " +
+           "str(coalesce(sum(case when b.start < ?3 then 1 else 0 end), 0)) || '-' || " +
+           "str(coalesce(sum(case when b.end < ?3 then 1 else 0 end), 0)) " +
+           "from Booking b where b.item.id = ?1 and b.status = ?2")
+    String findItemBookingsEtag(Long itemId, BookingStatus status, LocalDateTime now);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+           "from Booking b where b.status = ?1 and b.id > ?2 order by b.id")
+    List<ItemBookingDates> findBookingDatesAfter(BookingStatus status, Long afterId, Limit limit);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+           "from Booking b where b.booker.id = ?1 and b.status = ?2")
+    List<ItemBookingDates> findBookerBookingDates(Long bookerId, BookingStatus status);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+           "from Booking b where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    List<ItemBookingDates> findItemBookingDates(Long itemId, BookingStatus status, LocalDateTime from, LocalDateTime to);
 
     boolean existsByItem_IdAndBooker_idAndStatusAndEndBefore(Long itemId, Long bookerId, BookingStatus bookingStatus, LocalDateTime end);
 
-    List<Booking> findByItem_IdAndStatusAndEndAfter(Long itemId, BookingStatus bookingStatus, LocalDateTime end);
+    List<Booking> findByItem_IdInAndStatusAndStartLessThanAndEndGreaterThan(Collection<Long> itemIds, BookingStatus bookingStatus,
+                                                                          LocalDateTime end, LocalDateTime start);
+
+    boolean existsByItem_IdAndStatusAndStartLessThanAndEndGreaterThan(Long itemId, BookingStatus bookingStatus,
+                                                                     LocalDateTime end, LocalDateTime start);
 }
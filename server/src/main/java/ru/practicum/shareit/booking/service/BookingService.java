@@ -1,18 +1,29 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
-    List<BookingDto> findUserBookings(Long bookerId, String state, Integer from, Integer size);
+    List<BookingDto> findUserBookings(Long bookerId, BookingFilter filter, Integer from, Integer size);
 
     BookingDto create(NewBookingDto bookingDto, Long bookerId);
 
+    List<BookingDto> createAll(List<NewBookingDto> bookingDtos, Long bookerId);
+
     BookingDto findBookingById(Long bookingId, Long userId);
 
-    BookingDto approveBookingRequest(Long bookingId, boolean approved, Long userId);
+    Optional<String> getBookingEtag(Long bookingId, Long userId);
+
+    BookingDecisionDto approveBookingRequest(Long bookingId, boolean approved, Long userId);
+
+    List<BookingDto> findUserItemsBookings(Long ownerId, BookingFilter filter, Integer from, Integer size);
+
+    List<BookingDto> findUserBookingsAfter(Long bookerId, BookingFilter filter, String after, Integer size);
 
-    List<BookingDto> findUserItemsBookings(Long ownerId, String state, Integer from, Integer size);
+    List<BookingDto> findUserItemsBookingsAfter(Long ownerId, BookingFilter filter, String after, Integer size);
 }
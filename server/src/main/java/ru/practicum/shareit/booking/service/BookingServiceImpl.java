@@ -1,17 +1,20 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.calendar.BookingCalendar;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ConditionsNotMetException;
 import ru.practicum.shareit.exception.ForbiddenOperationException;
@@ -22,8 +25,17 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -31,15 +43,23 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingCalendar bookingCalendar;
+
     private final BookingMapper mapper;
 
+    /**
+     * Increments the version of the item at commit, so a concurrent approval for the item makes one of the two
+     * transactions fail and start over instead of waiting for a lock. A plain version check would not do: it does not
+     * see an approval that has not committed yet, and that approval misses this booking when it rejects overlaps.
+     */
     @Override
+    @RetryOnConflict
     @Transactional
     public BookingDto create(NewBookingDto bookingDto, Long bookerId) {
         checkDates(bookingDto.getStart(), bookingDto.getEnd());
         User booker = userRepository.findById(bookerId)
                 .orElseThrow(() -> new NotFoundException("Ошибка бронирования предмета. Пользователь с id " + bookerId + " не найден"));
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(() ->
+        Item item = itemRepository.findByIdIncrementingVersion(bookingDto.getItemId()).orElseThrow(() ->
                 new NotFoundException("Ошибка бронирования предмета. Предмет с id " + bookingDto.getItemId() + " не найден"));
 
         checkBookerIsNotOwner(bookerId, item);
@@ -49,16 +69,86 @@ public class BookingServiceImpl implements BookingService {
         return mapper.mapToBookingDto(bookingRepository.save(booking));
     }
 
+    /**
+     * Validates the bookings the same way as {@link #create} does one by one, but loads all requested items and
+     * their approved bookings within the requested period with one query each, then inserts in JDBC batches.
+     */
+    @Override
+    @RetryOnConflict
+    @Transactional
+    public List<BookingDto> createAll(List<NewBookingDto> bookingDtos, Long bookerId) {
+        if (bookingDtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        bookingDtos.forEach(bookingDto -> checkDates(bookingDto.getStart(), bookingDto.getEnd()));
+        User booker = userRepository.findById(bookerId)
+                .orElseThrow(() -> new NotFoundException("Ошибка бронирования предмета. Пользователь с id " + bookerId + " не найден"));
+        Set<Long> itemIds = bookingDtos.stream().map(NewBookingDto::getItemId).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdIncrementingVersion(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        LocalDateTime periodStart = bookingDtos.stream().map(NewBookingDto::getStart).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime periodEnd = bookingDtos.stream().map(NewBookingDto::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<Booking>> approvedBookings = bookingRepository
+                .findByItem_IdInAndStatusAndStartLessThanAndEndGreaterThan(items.keySet(), BookingStatus.APPROVED, periodEnd, periodStart)
+                .stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        for (NewBookingDto bookingDto : bookingDtos) {
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Ошибка бронирования предмета. Предмет с id " + bookingDto.getItemId() + " не найден");
+            }
+            checkBookerIsNotOwner(bookerId, item);
+            if (!item.isAvailable() || intersects(approvedBookings.getOrDefault(item.getId(), List.of()), bookingDto)) {
+                throw new ConditionsNotMetException("Предмет недоступен для бронирования");
+            }
+            Booking booking = mapper.mapToBooking(bookingDto, booker, item);
+            booking.setStatus(BookingStatus.WAITING);
+            bookings.add(booking);
+        }
+        return mapper.mapToBookingDtoList(bookingRepository.saveAll(bookings));
+    }
+
+    /**
+     * Increments the version of the item on approval, so concurrent approvals and creations for the same item
+     * conflict at commit. A concurrent decision on the same booking fails on the version of the booking itself.
+     */
     @Override
+    @RetryOnConflict
     @Transactional
-    public BookingDto approveBookingRequest(Long bookingId, boolean approved, Long userId) {
+    public BookingDecisionDto approveBookingRequest(Long bookingId, boolean approved, Long userId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Ошибка подтверждения бронирования предмета. " +
                                                          "Бронирование с id " + bookingId + " не найдено"));
+        if (approved) {
+            // The item has to be loaded by this query rather than from the second-level cache, otherwise Hibernate
+            // reuses the cached instance and does not schedule the version increment.
+            itemRepository.findByIdIncrementingVersion(booking.getItem().getId());
+        }
         checkUserIsItemOwner(booking, userId);
         checkStatus(booking.getStatus());
+        if (approved) {
+            checkNoApprovedIntersection(booking.getItem().getId(), booking.getStart(), booking.getEnd());
+        }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return mapper.mapToBookingDto(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        List<Long> rejectedIds = approved ? rejectOverlappingRequests(saved) : List.of();
+        bookingCalendar.put(saved);
+        return new BookingDecisionDto(mapper.mapToBookingDto(saved), rejectedIds);
+    }
+
+    /**
+     * Rejects the waiting bookings of the item that overlap the approved one: they could never be approved anyway.
+     * Returns the ids of the bookings this statement actually rejected.
+     */
+    private List<Long> rejectOverlappingRequests(Booking approved) {
+        List<Long> rejectedIds = bookingRepository.updateOverlappingStatus(approved.getItem().getId(),
+                approved.getStart(), approved.getEnd(), approved.getId(), BookingStatus.WAITING, BookingStatus.REJECTED);
+        if (!rejectedIds.isEmpty()) {
+            log.info("Bookings {} rejected as overlapping approved booking {}", rejectedIds, approved.getId());
+        }
+        return rejectedIds;
     }
 
     @Override
@@ -70,37 +160,48 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> findUserBookings(Long bookerId, String state, Integer from, Integer size) {
-        Pageable page = PageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "start"));
-        Iterable<Booking> bookings = switch (BookingState.of(state)) {
-            case ALL -> bookingRepository.findByBooker_Id(bookerId, page);
-            case PAST -> bookingRepository.findByBooker_idAndEndBefore(bookerId, LocalDateTime.now(), page);
-            case WAITING -> bookingRepository.findByBooker_idAndStatus(bookerId, BookingStatus.WAITING, page);
-            case FUTURE -> bookingRepository.findByBooker_IdAndStartAfter(bookerId, LocalDateTime.now(), page);
-            case CURRENT ->
-                    bookingRepository.findByBooker_IdAndStartBeforeAndEndAfter(bookerId, LocalDateTime.now(), LocalDateTime.now(), page);
-            case REJECTED -> bookingRepository.findByBooker_idAndStatus(bookerId, BookingStatus.REJECTED, page);
-        };
+    public Optional<String> getBookingEtag(Long bookingId, Long userId) {
+        return bookingRepository.findEtag(bookingId, userId);
+    }
+
+    @Override
+    public List<BookingDto> findUserBookings(Long bookerId, BookingFilter filter, Integer from, Integer size) {
+        return findBookings(query(BookingQuery.Role.BOOKER, bookerId, filter).offset(from * size).limit(size));
+    }
+
+    @Override
+    public List<BookingDto> findUserItemsBookings(Long ownerId, BookingFilter filter, Integer from, Integer size) {
+        checkUserOwnsAnyItem(ownerId);
+        return findBookings(query(BookingQuery.Role.OWNER, ownerId, filter).offset(from * size).limit(size));
+    }
 
-        return mapper.mapToBookingDtoList(bookings);
+    @Override
+    public List<BookingDto> findUserBookingsAfter(Long bookerId, BookingFilter filter, String after, Integer size) {
+        return findBookings(query(BookingQuery.Role.BOOKER, bookerId, filter).after(BookingCursor.decode(after)).limit(size));
     }
 
     @Override
-    public List<BookingDto> findUserItemsBookings(Long ownerId, String state, Integer from, Integer size) {
+    public List<BookingDto> findUserItemsBookingsAfter(Long ownerId, BookingFilter filter, String after, Integer size) {
         checkUserOwnsAnyItem(ownerId);
-        Pageable page = PageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "start"));
+        return findBookings(query(BookingQuery.Role.OWNER, ownerId, filter).after(BookingCursor.decode(after)).limit(size));
+    }
 
-        List<Booking> bookings = switch (BookingState.of(state)) {
-            case ALL -> bookingRepository.findByItem_Owner_Id(ownerId, page);
-            case PAST -> bookingRepository.findByItem_Owner_IdAndEndBefore(ownerId, LocalDateTime.now(), page);
-            case WAITING -> bookingRepository.findByItem_Owner_IdAndStatus(ownerId, BookingStatus.WAITING, page);
-            case FUTURE -> bookingRepository.findByItem_Owner_IdAndStartAfter(ownerId, LocalDateTime.now(), page);
-            case CURRENT ->
-                    bookingRepository.findByItem_Owner_IdAndStartBeforeAndEndAfter(ownerId, LocalDateTime.now(), LocalDateTime.now(), page);
-            case REJECTED -> bookingRepository.findByItem_Owner_IdAndStatus(ownerId, BookingStatus.REJECTED, page);
-        };
+    private BookingQuery.BookingQueryBuilder query(BookingQuery.Role role, Long userId, BookingFilter filter) {
+        if (filter.getRangeStart() != null && filter.getRangeEnd() != null && !filter.getRangeStart().isBefore(filter.getRangeEnd())) {
+            throw new ConditionsNotMetException("Начало периода должно быть раньше его окончания");
+        }
+        return BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .states(BookingState.ofAll(filter.getState()))
+                .now(LocalDateTime.now())
+                .itemIds(filter.getItemIds())
+                .rangeStart(filter.getRangeStart())
+                .rangeEnd(filter.getRangeEnd());
+    }
 
-        return mapper.mapToBookingDtoList(bookings);
+    private List<BookingDto> findBookings(BookingQuery.BookingQueryBuilder query) {
+        return mapper.mapToBookingDtoList(bookingRepository.findBookings(query.build()));
     }
 
     private void checkUserIsItemOwner(Booking booking, Long userId) {
@@ -129,17 +230,22 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void checkAvailable(Item item, NewBookingDto bookingDto) {
-        if (!item.isAvailable() || checkIntersectionByDates(item.getId(), bookingDto)) {
+        if (!item.isAvailable()) {
+            throw new ConditionsNotMetException("Предмет недоступен для бронирования");
+        }
+        checkNoApprovedIntersection(item.getId(), bookingDto.getStart(), bookingDto.getEnd());
+    }
+
+    private void checkNoApprovedIntersection(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsByItem_IdAndStatusAndStartLessThanAndEndGreaterThan(
+                itemId, BookingStatus.APPROVED, end, start)) {
             throw new ConditionsNotMetException("Предмет недоступен для бронирования");
         }
     }
 
-    private boolean checkIntersectionByDates(Long itemId, NewBookingDto bookingDto) {
-        return bookingRepository.findByItem_IdAndStatusAndEndAfter(itemId, BookingStatus.APPROVED, LocalDateTime.now())
-                .stream().anyMatch(booking ->
-                        !(bookingDto.getEnd().isBefore(booking.getStart()) ||
-                          bookingDto.getStart().isAfter(booking.getEnd()))
-                );
+    private static boolean intersects(List<Booking> bookings, NewBookingDto bookingDto) {
+        return bookings.stream().anyMatch(booking ->
+                booking.getStart().isBefore(bookingDto.getEnd()) && booking.getEnd().isAfter(bookingDto.getStart()));
     }
 
     private void checkDates(LocalDateTime startDate, LocalDateTime endDate) {
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated transactional method again, in a new transaction, when it loses an optimistic locking race.
+ * After {@code shareit.booking.retry.max-attempts} attempts the conflict is reported to the client.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${shareit.booking.retry.max-attempts:3}",
+        backoff = @Backoff(delayExpression = "${shareit.booking.retry.delay:20}", multiplier = 2, random = true))
+public @interface RetryOnConflict {
+}
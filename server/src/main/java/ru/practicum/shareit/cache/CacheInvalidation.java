@@ -0,0 +1,7 @@
+package ru.practicum.shareit.cache;
+
+/**
+ * A cached entity row that was changed or removed by one of the server instances.
+ */
+public record CacheInvalidation(String entityName, Long id) {
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries second-level cache invalidations between server instances.
+ *
+ * <p>{@link #publish} is called while the writing transaction is flushed; an implementation must deliver the
+ * message to the other instances only once that transaction has committed and never to the publishing instance
+ * itself, whose cache Hibernate already keeps up to date.
+ */
+public interface CacheInvalidationChannel {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Turns on the Hibernate second-level cache for users, items and requests, backed by bounded local Caffeine
+ * regions. Other server instances are kept coherent by {@link EntityCacheInvalidator}.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+@ConditionalOnProperty(name = "shareit.cache.entity.enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfig {
+    static final List<String> REGIONS = List.of("users", "items", "requests");
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(EntityCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager(properties));
+        };
+    }
+
+    /**
+     * Hibernate statistics back the region hit and miss meters, but they add bookkeeping to every session, so they are
+     * collected only when {@code shareit.metrics.cache.enabled} is set.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "shareit.metrics.cache.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer entityCacheStatisticsCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    }
+
+    private static CacheManager cacheManager(EntityCacheProperties properties) {
+        // Every application context gets its own manager, so contexts sharing a JVM never share cached rows.
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit-entity-cache-" + UUID.randomUUID()), EntityCacheConfig.class.getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(properties.getMaxEntries()));
+            configuration.setExpireAfterWrite(OptionalLong.of(properties.getTtl().toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+/**
+ * Publishes updates and deletes of cached entities to the {@link CacheInvalidationChannel} and evicts the rows
+ * other instances report as changed. Rows changed by database cascades on user deletion are handled the same way
+ * through {@link UserDeletedEvent}. Hit and miss counts of the regions come from the Hibernate statistics metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.entity.enabled", havingValue = "true", matchIfMissing = true)
+public class EntityCacheInvalidator implements PostUpdateEventListener, PostDeleteEventListener {
+    public static final String INVALIDATIONS_METRIC = "shareit.cache.invalidations";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private SessionFactoryImplementor sessionFactory;
+    private final CacheInvalidationChannel channel;
+    private final Counter published;
+    private final Counter received;
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationChannel channel,
+                                  MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.channel = channel;
+        this.published = counter(meterRegistry, "published");
+        this.received = counter(meterRegistry, "received");
+    }
+
+    @PostConstruct
+    void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        channel.subscribe(invalidation -> {
+            sessionFactory.getCache().evictEntityData(invalidation.entityName(), invalidation.id());
+            received.increment();
+        });
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+
+    /**
+     * Tells the other instances about the cascaded rows while the deleting transaction is still open, so the
+     * channel can deliver the messages on its commit.
+     */
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.requestIds().forEach(id -> publish(ItemRequest.class, id));
+        event.requestItemIds().forEach(id -> publish(Item.class, id));
+    }
+
+    /**
+     * Evicts the cascaded rows from the local regions once the deletion is visible to other transactions.
+     */
+    @TransactionalEventListener
+    public void evictUserDeleted(UserDeletedEvent event) {
+        event.requestIds().forEach(id -> sessionFactory.getCache().evictEntityData(ItemRequest.class, id));
+        event.requestItemIds().forEach(id -> sessionFactory.getCache().evictEntityData(Item.class, id));
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void publish(EntityPersister persister, Object id) {
+        if (persister.canWriteToCache()) {
+            channel.publish(new CacheInvalidation(persister.getEntityName(), (Long) id));
+            published.increment();
+        }
+    }
+
+    private void publish(Class<?> entityClass, Long id) {
+        channel.publish(new CacheInvalidation(entityClass.getName(), id));
+        published.increment();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder(INVALIDATIONS_METRIC)
+                .description("Second-level cache invalidations exchanged with other server instances")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+}
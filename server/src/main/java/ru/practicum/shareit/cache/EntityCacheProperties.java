@@ -0,0 +1,15 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.cache.entity")
+public class EntityCacheProperties {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofMinutes(10);
+    private long maxEntries = 10_000;
+    private String invalidationChannel = "local";
+}
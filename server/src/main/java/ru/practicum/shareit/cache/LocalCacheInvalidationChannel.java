@@ -0,0 +1,22 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Channel for a single server instance: there is nobody else to notify.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.cache.entity.invalidation-channel", havingValue = "local", matchIfMissing = true)
+public class LocalCacheInvalidationChannel implements CacheInvalidationChannel {
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Sends invalidations with {@code pg_notify} on the connection of the writing transaction, so PostgreSQL delivers
+ * them only after a successful commit. Every instance keeps one pooled connection listening on the channel.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.cache.entity.invalidation-channel", havingValue = "postgres")
+public class PostgresCacheInvalidationChannel implements CacheInvalidationChannel {
+    static final String CHANNEL = "shareit_cache_invalidation";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String origin = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationChannel(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void start() {
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        String payload = String.join("|", origin, invalidation.entityName(), invalidation.id().toString());
+        jdbcTemplate.query("select pg_notify(?, ?)", ResultSet::next, CHANNEL, payload);
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                connection.setAutoCommit(true);
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection, reconnecting", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length != 3 || parts[0].equals(origin)) {
+            return;
+        }
+        CacheInvalidation invalidation = new CacheInvalidation(parts[1], Long.valueOf(parts[2]));
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,11 +1,22 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -14,6 +25,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public Collection<ItemExtendedDto> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -24,13 +36,49 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemExtendedDto getItemById(@PathVariable Long itemId,
-                                       @RequestHeader("X-Sharer-User-Id") Long userId) {
+                                       @RequestHeader("X-Sharer-User-Id") Long userId,
+                                       WebRequest request) {
+        if (itemService.getItemEtag(itemId, userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return itemService.getItemById(itemId, userId);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
-        return itemService.search(text);
+    public List<ItemDto> search(@RequestParam String text,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        if (rangeStart != null || rangeEnd != null) {
+            return itemService.searchAvailableBetween(text, rangeStart, rangeEnd, from, size);
+        }
+        return itemService.search(text, from, size);
+    }
+
+    /**
+     * Streams the search results as NDJSON. A period search is validated and run before the response starts, so its
+     * errors keep their status.
+     */
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSearch(@RequestParam String text,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeStart,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime rangeEnd,
+                                                              @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                              @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (rangeStart != null || rangeEnd != null) {
+            List<ItemDto> items = itemService.searchAvailableBetween(text, rangeStart, rangeEnd, from, size);
+            return response.body(out -> items.forEach(item -> writeLine(out, item)));
+        }
+        return response.body(out -> itemService.streamSearch(text, from, size, item -> writeLine(out, item)));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<AvailabilitySlotDto> getItemAvailability(@PathVariable Long itemId,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getItemAvailability(itemId, from, to);
     }
 
     @PostMapping
@@ -40,6 +88,13 @@ public class ItemController {
         return itemService.create(itemDto, userId);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<ItemDto> createAll(@RequestBody List<ItemDto> itemDtos,
+                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemService.createAll(itemDtos, userId);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(@RequestBody UpdateItemDto itemDto,
                           @PathVariable Long itemId,
@@ -54,4 +109,13 @@ public class ItemController {
                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.createComment(commentDto, itemId, userId);
     }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
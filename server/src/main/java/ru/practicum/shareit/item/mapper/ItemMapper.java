@@ -27,6 +27,7 @@ public interface ItemMapper {
     @Mapping(target = "name", source = "itemDto.name")
     @Mapping(target = "owner", source = "user")
     @Mapping(target = "description", source = "itemDto.description")
+    @Mapping(target = "version", ignore = true)
     Item mapToItem(ItemDto itemDto, User user, ItemRequest request);
 
     List<ItemDto> mapToItemDtoList(List<Item> itemList);
@@ -1,21 +1,68 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemEtag;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
     List<Item> getItemsByOwner_Id(Long ownerId, Pageable pageable);
 
+    List<Item> findAllByRequest_IdIn(Collection<Long> requestIds);
+
+    List<Item> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    @Query("select i.id from Item i where i.request.id in ?1")
+    List<Long> findIdsByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select i from Item i " +
+           "where i.available and " +
+           "(upper(i.name) like upper(concat('%', ?1, '%')) " +
+           "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+           "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Same as {@link #search}, but leaves out items with a booking of the given status that overlaps the period.
+     */
     @Query("select i from Item i " +
            "where i.available and " +
            "(upper(i.name) like upper(concat('%', ?1, '%')) " +
-           "or upper(i.description) like upper(concat('%', ?1, '%')))")
-    List<Item> search(String text);
+           "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+           "and not exists (select b.id from Booking b " +
+           "where b.item.id = i.id and b.status = ?4 and b.start < ?3 and b.end > ?2) " +
+           "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<Item> searchNotBookedBetween(String text, LocalDateTime start, LocalDateTime end, BookingStatus status, Pageable pageable);
 
     boolean existsItemByOwner_Id(Long ownerId);
+
+    @Query("select i.owner.id as ownerId, " +
+           "str(i.version) || '-' || str(count(c)) || '-' || str(coalesce(sum(a.version), 0)) as tag " +
+           "from Item i left join Comment c on c.item = i left join c.author a " +
+           "where i.id = ?1 " +
+           "group by i.id, i.owner.id, i.version")
+    Optional<ItemEtag> findEtag(Long itemId);
+
+    /**
+     * Loads the item bypassing the second-level cache and increments its version at commit, so concurrent
+     * transactions that incremented the same version fail.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdIncrementingVersion(Long itemId);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select i from Item i where i.id in ?1")
+    List<Item> findAllByIdIncrementingVersion(Collection<Long> itemIds);
 }
@@ -0,0 +1,254 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over item names and descriptions.
+ *
+ * <p>Every indexed item gets a dense ordinal, so postings are compact bit sets however sparse the ids are. A query
+ * intersects the postings of its trigrams and then verifies the remaining candidates with a substring check.
+ * Results match {@link ItemRepository#search}: available items whose name or description contains the text ignoring
+ * case, name matches first, then by id.
+ */
+@Slf4j
+@Component
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ItemRepository itemRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final BitSet available = new BitSet();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    private volatile boolean ready;
+
+    public ItemSearchIndex(ItemRepository itemRepository,
+                           @Value("${shareit.search.in-memory-index.enabled:true}") boolean enabled) {
+        this.itemRepository = itemRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Loads all items in id order. Writes committed meanwhile wait for the lock and are applied on top, so none of
+     * them is lost whether the scan has passed the item or not.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            clear();
+            long lastId = 0;
+            List<Item> items;
+            do {
+                items = itemRepository.findByIdGreaterThanOrderById(lastId, Limit.of(LOAD_PAGE_SIZE));
+                items.forEach(item -> replace(item.getId(), Entry.of(item)));
+                if (!items.isEmpty()) {
+                    lastId = items.getLast().getId();
+                }
+            } while (items.size() == LOAD_PAGE_SIZE);
+            ready = true;
+            log.info("Item search index built, {} items indexed", ordinals.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(Item item) {
+        putAll(List.of(item));
+    }
+
+    /**
+     * Indexes the current state of the items. Inside a transaction the change is applied only after commit, so
+     * searches never see uncommitted or rolled back state.
+     */
+    public void putAll(Collection<Item> items) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(items);
+                }
+            });
+        } else {
+            apply(items);
+        }
+    }
+
+    /**
+     * Returns ids of matching items for the requested window of the ranked result.
+     */
+    public List<Long> search(String text, int offset, int limit) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) available.clone();
+            for (String gram : trigrams(query)) {
+                BitSet posting = postings.get(gram);
+                if (posting == null) {
+                    return List.of();
+                }
+                candidates.and(posting);
+            }
+
+            List<Integer> nameMatches = new ArrayList<>();
+            List<Integer> descriptionMatches = new ArrayList<>();
+            for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+                if (entries[ordinal].name().contains(query)) {
+                    nameMatches.add(ordinal);
+                } else if (entries[ordinal].description().contains(query)) {
+                    descriptionMatches.add(ordinal);
+                }
+            }
+            // Ordinals follow insertion order, not ids, so each group is sorted by id before paging.
+            List<Long> matches = new ArrayList<>(nameMatches.size() + descriptionMatches.size());
+            matches.addAll(sortedIds(nameMatches));
+            matches.addAll(sortedIds(descriptionMatches));
+
+            if (offset >= matches.size()) {
+                return List.of();
+            }
+            return List.copyOf(matches.subList(offset, Math.min(matches.size(), offset + limit)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Collection<Item> items) {
+        lock.writeLock().lock();
+        try {
+            // Until the index is built the loading scan picks up committed items by itself.
+            if (!ready) {
+                return;
+            }
+            items.forEach(item -> replace(item.getId(), Entry.of(item)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the entry unless a newer version of the item is already indexed: transactions may commit and run their
+     * synchronizations in different orders.
+     */
+    private void replace(Long id, Entry entry) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            ordinal = ordinals.size();
+            ordinals.put(id, ordinal);
+            ensureCapacity(ordinal);
+            ids[ordinal] = id;
+        } else if (entries[ordinal].version() > entry.version()) {
+            return;
+        } else {
+            remove(ordinal, entries[ordinal]);
+        }
+        add(ordinal, entry);
+    }
+
+    private void add(int ordinal, Entry entry) {
+        entries[ordinal] = entry;
+        available.set(ordinal, entry.available());
+        for (String gram : entry.grams()) {
+            postings.computeIfAbsent(gram, key -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void remove(int ordinal, Entry entry) {
+        for (String gram : entry.grams()) {
+            BitSet posting = postings.get(gram);
+            posting.clear(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        entries[ordinal] = null;
+        available.clear(ordinal);
+    }
+
+    private void clear() {
+        postings.clear();
+        ordinals.clear();
+        available.clear();
+        ids = new long[INITIAL_CAPACITY];
+        entries = new Entry[INITIAL_CAPACITY];
+    }
+
+    private void ensureCapacity(int ordinal) {
+        if (ordinal >= ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            entries = Arrays.copyOf(entries, capacity);
+        }
+    }
+
+    private List<Long> sortedIds(List<Integer> ordinalList) {
+        return ordinalList.stream()
+                .map(ordinal -> ids[ordinal])
+                .sorted()
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private record Entry(String name, String description, boolean available, long version) {
+
+        static Entry of(Item item) {
+            return new Entry(normalize(item.getName()), normalize(item.getDescription()), item.isAvailable(),
+                    item.getVersion() == null ? 0 : item.getVersion());
+        }
+
+        Set<String> grams() {
+            Set<String> grams = trigrams(name);
+            grams.addAll(trigrams(description));
+            return grams;
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemService {
     Collection<ItemExtendedDto> getUserItems(Long userId, Integer from, Integer size);
 
     ItemExtendedDto getItemById(Long itemId, Long userId);
 
-    List<ItemDto> search(String text);
+    Optional<String> getItemEtag(Long itemId, Long userId);
+
+    List<ItemDto> search(String text, Integer from, Integer size);
+
+    List<ItemDto> searchAvailableBetween(String text, LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
+
+    void streamSearch(String text, Integer from, Integer size, Consumer<ItemDto> consumer);
+
+    List<AvailabilitySlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 
     ItemDto create(ItemDto itemDto, Long owner);
 
+    List<ItemDto> createAll(List<ItemDto> itemDtos, Long owner);
+
     ItemDto update(UpdateItemDto itemDto, Long itemId, Long owner);
 
     CommentDto createComment(NewCommentDto commentDto, Long itemId, Long userId);
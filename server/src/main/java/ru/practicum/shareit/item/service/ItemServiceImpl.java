@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.calendar.BookingCalendar;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -17,6 +19,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
@@ -27,6 +30,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -34,6 +41,8 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int SEARCH_HYDRATION_CHUNK_SIZE = 100;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
@@ -42,6 +51,8 @@ public class ItemServiceImpl implements ItemService {
     private final ItemMapper itemMapper;
     private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingCalendar bookingCalendar;
 
     @Override
     public Collection<ItemExtendedDto> getUserItems(Long userId, Integer from, Integer size) {
@@ -71,12 +82,69 @@ public class ItemServiceImpl implements ItemService {
         return itemsMap.get(itemId);
     }
 
+    /**
+     * The owner sees the last and the next booking as well, so their tag also counts the approved bookings of the
+     * item that have already started or ended: the pair moves as soon as one of them crosses the current time.
+     */
+    @Override
+    public Optional<String> getItemEtag(Long itemId, Long userId) {
+        return itemRepository.findEtag(itemId).map(etag -> etag.getOwnerId().equals(userId)
+                ? etag.getTag() + "-o" + bookingRepository.findItemBookingsEtag(itemId, BookingStatus.APPROVED, LocalDateTime.now())
+                : etag.getTag());
+    }
+
+    @Override
+    public List<ItemDto> search(String text, Integer from, Integer size) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (itemSearchIndex.isReady()) {
+            return itemMapper.mapToItemDtoList(findAllByIdInOrder(itemSearchIndex.search(text, from * size, size)));
+        }
+        return itemMapper.mapToItemDtoList(itemRepository.search(text, PageRequest.of(from, size)));
+    }
+
+    @Override
+    public List<ItemDto> searchAvailableBetween(String text, LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size) {
+        if (rangeStart == null || rangeEnd == null) {
+            throw new ConditionsNotMetException("Необходимо указать начало и окончание периода");
+        }
+        checkPeriod(rangeStart, rangeEnd);
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        return itemMapper.mapToItemDtoList(itemRepository.searchNotBookedBetween(text, rangeStart, rangeEnd,
+                BookingStatus.APPROVED, PageRequest.of(from, size)));
+    }
+
     @Override
-    public List<ItemDto> search(String text) {
+    public void streamSearch(String text, Integer from, Integer size, Consumer<ItemDto> consumer) {
         if (text == null || text.isBlank()) {
+            return;
+        }
+        if (!itemSearchIndex.isReady()) {
+            itemRepository.search(text, PageRequest.of(from, size)).stream()
+                    .map(itemMapper::mapToItemDto)
+                    .forEach(consumer);
+            return;
+        }
+        List<Long> itemIds = itemSearchIndex.search(text, from * size, size);
+        for (int i = 0; i < itemIds.size(); i += SEARCH_HYDRATION_CHUNK_SIZE) {
+            findAllByIdInOrder(itemIds.subList(i, Math.min(itemIds.size(), i + SEARCH_HYDRATION_CHUNK_SIZE))).stream()
+                    .map(itemMapper::mapToItemDto)
+                    .forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<AvailabilitySlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        checkPeriod(from, to);
+        Item item = itemRepository.findById(itemId).orElseThrow(() ->
+                new NotFoundException("Предмет не найден id:" + itemId));
+        if (!item.isAvailable()) {
             return Collections.emptyList();
         }
-        return itemMapper.mapToItemDtoList(itemRepository.search(text));
+        return bookingCalendar.findFreeSlots(itemId, from, to);
     }
 
     @Override
@@ -88,8 +156,28 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getRequestId() != null) {
             request = itemRequestRepository.findById(itemDto.getRequestId()).orElse(null);
         }
-        Item item = itemMapper.mapToItem(itemDto, user, request);
-        return itemMapper.mapToItemDto(itemRepository.save(item));
+        Item item = itemRepository.save(itemMapper.mapToItem(itemDto, user, request));
+        itemSearchIndex.put(item);
+        return itemMapper.mapToItemDto(item);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> createAll(List<ItemDto> itemDtos, Long owner) {
+        User user = userRepository.findById(owner)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id " + owner + " не найден"));
+        Set<Long> requestIds = itemDtos.stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        List<Item> items = itemRepository.saveAll(itemDtos.stream()
+                .map(itemDto -> itemMapper.mapToItem(itemDto, user, requests.get(itemDto.getRequestId())))
+                .toList());
+        itemSearchIndex.putAll(items);
+        return itemMapper.mapToItemDtoList(items);
     }
 
     @Override
@@ -98,7 +186,9 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Ошибка обновления предмета. Предмет не найден id:" + itemId));
         updateItemFields(item, itemDto, owner);
-        return itemMapper.mapToItemDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchIndex.put(item);
+        return itemMapper.mapToItemDto(item);
     }
 
     @Override
@@ -139,30 +229,23 @@ public class ItemServiceImpl implements ItemService {
         }
     }
 
+    private List<Item> findAllByIdInOrder(List<Long> itemIds) {
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     private void setLastBookings(Map<Long, ItemExtendedDto> itemsMap) {
-        bookingRepository.findAllByItem_IdInAndStatusAndEndBeforeOrderByIdAscEndDesc(
-                        itemsMap.keySet(),
-                        BookingStatus.APPROVED,
-                        LocalDateTime.now())
-                .forEach(booking -> {
-                    ItemExtendedDto itemExtendedDto = itemsMap.get(booking.getItem().getId());
-                    if (itemExtendedDto.getLastBooking() == null) {
-                        itemExtendedDto.setLastBooking(bookingMapper.mapToBookingDatesDto(booking));
-                    }
-                });
+        bookingRepository.findLastBookings(itemsMap.keySet(), BookingStatus.APPROVED.name(), LocalDateTime.now())
+                .forEach(booking -> itemsMap.get(booking.getItemId()).setLastBooking(bookingMapper.mapToBookingDatesDto(booking)));
     }
 
     private void setNextBookings(Map<Long, ItemExtendedDto> itemsMap) {
-        bookingRepository.findAllByItem_IdInAndStatusAndStartGreaterThanEqualOrderByIdAscStartAsc(
-                        itemsMap.keySet(),
-                        BookingStatus.APPROVED,
-                        LocalDateTime.now())
-                .forEach(booking -> {
-                    ItemExtendedDto itemExtendedDto = itemsMap.get(booking.getItem().getId());
-                    if (itemExtendedDto.getNextBooking() == null) {
-                        itemExtendedDto.setNextBooking(bookingMapper.mapToBookingDatesDto(booking));
-                    }
-                });
+        bookingRepository.findNextBookings(itemsMap.keySet(), BookingStatus.APPROVED.name(), LocalDateTime.now())
+                .forEach(booking -> itemsMap.get(booking.getItemId()).setNextBooking(bookingMapper.mapToBookingDatesDto(booking)));
     }
 
     private void setComments(Map<Long, ItemExtendedDto> itemsMap) {
@@ -171,4 +254,10 @@ public class ItemServiceImpl implements ItemService {
                     itemsMap.get(comment.getItem().getId()).getComments().add(commentMapper.mapToCommentDto(comment));
                 });
     }
+
+    private void checkPeriod(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new ConditionsNotMetException("Начало периода должно быть раньше его окончания");
+        }
+    }
 }
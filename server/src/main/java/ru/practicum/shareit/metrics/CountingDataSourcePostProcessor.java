@@ -0,0 +1,90 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps the data source so that fetched rows are counted in {@link SqlMetricsContext}. Every JDBC call then goes
+ * through a reflective proxy, so row counting is off unless {@code shareit.metrics.sql.rows.enabled} is set.
+ * Statements are counted by {@link StatementCounter}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.metrics.sql.rows.enabled", havingValue = "true")
+public class CountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return wrap(DataSource.class, dataSource);
+        }
+        return bean;
+    }
+
+    private static Object wrap(Class<?> type, Object target) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new CountingHandler(target));
+    }
+
+    private record CountingHandler(Object target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "unwrap", "isWrapperFor" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return method.getName().equals("unwrap") ? proxy : true;
+                    }
+                }
+                default -> {
+                }
+            }
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+
+            if (target instanceof ResultSet && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                SqlMetricsContext.rowFetched();
+            }
+
+            if (method.getName().equals("getConnection") && result instanceof Connection && target instanceof DataSource) {
+                return wrap(Connection.class, result);
+            }
+            if (target instanceof Connection) {
+                if (result instanceof CallableStatement) {
+                    return wrap(CallableStatement.class, result);
+                }
+                if (result instanceof PreparedStatement) {
+                    return wrap(PreparedStatement.class, result);
+                }
+                if (result instanceof Statement) {
+                    return wrap(Statement.class, result);
+                }
+            }
+            if (target instanceof Statement && result instanceof ResultSet) {
+                return wrap(ResultSet.class, result);
+            }
+            return result;
+        }
+    }
+}
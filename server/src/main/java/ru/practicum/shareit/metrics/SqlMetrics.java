@@ -0,0 +1,77 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates per-endpoint SQL counters and publishes them as Micrometer distribution summaries.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.metrics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetrics {
+    public static final String STATEMENTS_METRIC = "shareit.sql.statements";
+    public static final String ROWS_METRIC = "shareit.sql.rows";
+    public static final String ENTITY_LOADS_METRIC = "shareit.sql.entity.loads";
+    public static final String ENDPOINT_TAG = "endpoint";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, SqlMetricsContext.Counts counts) {
+        summary(STATEMENTS_METRIC, "statements", endpoint).record(counts.getStatements());
+        summary(ROWS_METRIC, "rows", endpoint).record(counts.getRows());
+        summary(ENTITY_LOADS_METRIC, "entities", endpoint).record(counts.getEntityLoads());
+        stats.computeIfAbsent(endpoint, key -> new EndpointStats()).add(counts);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> snapshot.put(endpoint, endpointStats.toMap()));
+        return snapshot;
+    }
+
+    private DistributionSummary summary(String name, String unit, String endpoint) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag(ENDPOINT_TAG, endpoint)
+                .register(meterRegistry);
+    }
+
+    private static final class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder entityLoads = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void add(SqlMetricsContext.Counts counts) {
+            requests.increment();
+            statements.add(counts.getStatements());
+            rows.add(counts.getRows());
+            entityLoads.add(counts.getEntityLoads());
+            maxStatements.accumulate(counts.getStatements());
+        }
+
+        Map<String, Object> toMap() {
+            long requestCount = requests.sum();
+            return Map.of(
+                    "requests", requestCount,
+                    "statements", statements.sum(),
+                    "rows", rows.sum(),
+                    "entityLoads", entityLoads.sum(),
+                    "maxStatementsPerRequest", maxStatements.get(),
+                    "avgStatementsPerRequest", requestCount == 0 ? 0.0 : (double) statements.sum() / requestCount
+            );
+        }
+    }
+}
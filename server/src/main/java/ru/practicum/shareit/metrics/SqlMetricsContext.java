@@ -0,0 +1,60 @@
+package ru.practicum.shareit.metrics;
+
+/**
+ * Per-thread SQL counters of the request currently being handled.
+ */
+public final class SqlMetricsContext {
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private SqlMetricsContext() {
+    }
+
+    public static void start() {
+        CURRENT.set(new Counts());
+    }
+
+    public static Counts stop() {
+        Counts counts = CURRENT.get();
+        CURRENT.remove();
+        return counts;
+    }
+
+    static void statementExecuted() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements++;
+        }
+    }
+
+    static void rowFetched() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.rows++;
+        }
+    }
+
+    static void entityLoaded() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entityLoads++;
+        }
+    }
+
+    public static final class Counts {
+        private long statements;
+        private long rows;
+        private long entityLoads;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Opens {@link SqlMetricsContext} around controller methods and records the counters tagged as
+ * {@code ControllerName.methodName}.
+ */
+@RequiredArgsConstructor
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+    private final SqlMetrics sqlMetrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            SqlMetricsContext.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlMetricsContext.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlMetricsContext.Counts counts = SqlMetricsContext.stop();
+        if (counts != null && handler instanceof HandlerMethod handlerMethod) {
+            sqlMetrics.record(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName(), counts);
+        }
+    }
+}
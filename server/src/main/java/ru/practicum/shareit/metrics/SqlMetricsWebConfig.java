@@ -0,0 +1,18 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class SqlMetricsWebConfig implements WebMvcConfigurer {
+    private final ObjectProvider<SqlMetrics> sqlMetrics;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        sqlMetrics.ifAvailable(metrics -> registry.addInterceptor(new SqlMetricsInterceptor(metrics)));
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "sqlqueries")
+@ConditionalOnProperty(name = "shareit.metrics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlQueriesEndpoint {
+    private final SqlMetrics sqlMetrics;
+
+    @ReadOperation
+    public Map<String, Map<String, Object>> sqlQueries() {
+        return sqlMetrics.snapshot();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares in {@link SqlMetricsContext}. It sees every statement once and never
+ * touches the rows, so it is cheap enough to stay on. An inspector configured explicitly takes precedence.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.metrics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlMetricsContext.statementExecuted();
+        return sql;
+    }
+}
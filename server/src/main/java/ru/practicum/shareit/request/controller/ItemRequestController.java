@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
@@ -37,7 +38,10 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto getItemRequestById(@PathVariable long requestId) {
+    public ItemRequestDto getItemRequestById(@PathVariable long requestId, WebRequest request) {
+        if (requestService.getItemRequestEtag(requestId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return requestService.getItemRequestById(requestId);
     }
 }
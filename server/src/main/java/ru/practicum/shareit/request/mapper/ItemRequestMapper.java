@@ -11,17 +11,25 @@ import ru.practicum.shareit.request.dto.NewItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
+
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface ItemRequestMapper {
     @Mapping(target = "requestorId", source = "requestor.id")
     ItemRequestDto mapToItemRequestDto(ItemRequest itemRequest);
 
+    @Mapping(target = "id", source = "itemRequest.id")
+    @Mapping(target = "requestorId", source = "itemRequest.requestor.id")
+    @Mapping(target = "items", source = "items")
+    ItemRequestDto mapToItemRequestDto(ItemRequest itemRequest, List<Item> items);
+
     @Mapping(target = "requestorId", source = "requestor.id")
     ItemRequestShortDto mapToItemRequestShortDto(ItemRequest itemRequest);
 
     @Mapping(target = "requestor", source = "user")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "items", ignore = true)
+    @Mapping(target = "version", ignore = true)
     ItemRequest mapToItemRequest(NewItemRequestDto newItemRequestDto, User user);
 
     @Mapping(target = "itemId", source = "id")
@@ -2,12 +2,23 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findByRequestor_Id(Long userId, Pageable page);
 
     List<ItemRequest> findByRequestor_IdNot(Long userId, Pageable page);
+
+    @Query("select r.id from ItemRequest r where r.requestor.id = ?1")
+    List<Long> findIdsByRequestorId(Long userId);
+
+    @Query("select str(r.version) || '-' || str(count(i)) || '-' || str(coalesce(sum(i.version), 0)) " +
+           "from ItemRequest r left join r.items i " +
+           "where r.id = ?1 " +
+           "group by r.id, r.version")
+    Optional<String> findEtag(Long requestId);
 }
@@ -5,6 +5,7 @@ import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
@@ -15,4 +16,6 @@ public interface ItemRequestService {
     List<ItemRequestShortDto> getItemRequests(long userId, Integer from, Integer size);
 
     ItemRequestDto getItemRequestById(long requestId);
+
+    Optional<String> getItemRequestEtag(long requestId);
 }
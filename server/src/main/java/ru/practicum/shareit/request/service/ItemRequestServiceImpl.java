@@ -7,6 +7,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
@@ -16,7 +18,11 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -25,6 +31,7 @@ import java.util.List;
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository requestRepository;
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
     private final ItemRequestMapper mapper;
 
     @Override
@@ -38,10 +45,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     public List<ItemRequestDto> getUserItemRequests(long userId, Integer from, Integer size) {
         Pageable page = PageRequest.of(from, size, Sort.by(Sort.Direction.DESC, "created"));
-        List<ItemRequest> requests = requestRepository.findByRequestor_Id(userId, page);
-        return requests.stream()
-                .map(mapper::mapToItemRequestDto)
-                .toList();
+        return mapWithItems(requestRepository.findByRequestor_Id(userId, page));
     }
 
     @Override
@@ -54,7 +58,25 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestDto getItemRequestById(long requestId) {
-        return mapper.mapToItemRequestDto(requestRepository.findById(requestId).orElseThrow(() ->
-                new NotFoundException("Запрос с id=" + requestId + " не найден")));
+        ItemRequest request = requestRepository.findById(requestId).orElseThrow(() ->
+                new NotFoundException("Запрос с id=" + requestId + " не найден"));
+        return mapWithItems(List.of(request)).getFirst();
+    }
+
+    @Override
+    public Optional<String> getItemRequestEtag(long requestId) {
+        return requestRepository.findEtag(requestId);
+    }
+
+    private List<ItemRequestDto> mapWithItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequest_IdIn(requests.stream().map(ItemRequest::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> mapper.mapToItemRequestDto(request, itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .toList();
     }
 }
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
@@ -17,7 +18,10 @@ public class UserController {
     private final UserService userService;
 
     @GetMapping("/{userId}")
-    Optional<UserDto> getUserById(@PathVariable Long userId) {
+    Optional<UserDto> getUserById(@PathVariable Long userId, WebRequest request) {
+        if (userService.getUserEtag(userId).map(request::checkNotModified).orElse(false)) {
+            return null;
+        }
         return userService.getUserById(userId);
     }
 
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -9,5 +10,6 @@ import ru.practicum.shareit.user.model.User;
 public interface UserMapper {
     UserDto mapToUserDto(User user);
 
+    @Mapping(target = "version", ignore = true)
     User mapToUser(UserDto userDto);
 }
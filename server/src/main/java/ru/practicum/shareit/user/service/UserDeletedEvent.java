@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.service;
+
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that deletes a user. Lists the rows the database removes or changes through
+ * its {@code ON DELETE} actions, which Hibernate never sees: the requests of the user, the items that answered
+ * them and lose their request reference, and the approved bookings of the user.
+ */
+public record UserDeletedEvent(Long userId, List<Long> requestIds, List<Long> requestItemIds,
+                               List<ItemBookingDates> approvedBookings) {
+}
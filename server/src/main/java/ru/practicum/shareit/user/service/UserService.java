@@ -8,6 +8,8 @@ import java.util.Optional;
 public interface UserService {
     Optional<UserDto> getUserById(Long id);
 
+    Optional<String> getUserEtag(Long id);
+
     UserDto create(UserDto userDto);
 
     UserDto update(UpdateUserDto userDto, Long id);
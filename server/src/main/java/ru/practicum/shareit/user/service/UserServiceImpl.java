@@ -1,16 +1,23 @@
 package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ConditionsNotMetException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UpdateUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -18,6 +25,10 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final UserMapper mapper;
 
     @Override
@@ -25,6 +36,11 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(id).map(mapper::mapToUserDto);
     }
 
+    @Override
+    public Optional<String> getUserEtag(Long id) {
+        return userRepository.findEtag(id);
+    }
+
     @Override
     @Transactional
     public UserDto create(UserDto userDto) {
@@ -42,10 +58,19 @@ public class UserServiceImpl implements UserService {
         return mapper.mapToUserDto(userRepository.save(user));
     }
 
+    /**
+     * The database cascades the deletion to the requests, bookings and comments of the user, so the affected ids
+     * are collected beforehand and announced with a {@link UserDeletedEvent} for the caches and the booking
+     * calendar to drop them.
+     */
     @Override
     @Transactional
     public boolean delete(Long id) {
+        List<Long> requestIds = itemRequestRepository.findIdsByRequestorId(id);
+        List<Long> requestItemIds = requestIds.isEmpty() ? List.of() : itemRepository.findIdsByRequestIdIn(requestIds);
+        List<ItemBookingDates> approvedBookings = bookingRepository.findBookerBookingDates(id, BookingStatus.APPROVED);
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(id, requestIds, requestItemIds, approvedBookings));
         return true;
     }
 
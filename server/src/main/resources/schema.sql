@@ -3,21 +3,34 @@ DROP TABLE IF EXISTS comments;
 DROP TABLE IF EXISTS items;
 DROP TABLE IF EXISTS requests;
 DROP TABLE IF EXISTS users;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 500;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 500;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
 
 
 CREATE TABLE IF NOT EXISTS users (
-    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id              BIGINT DEFAULT nextval('users_seq') PRIMARY KEY,
     name            VARCHAR(128) NOT NULL,
-    email           VARCHAR(254) NOT NULL
+    email           VARCHAR(254) NOT NULL,
+    version         BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE UNIQUE INDEX idx_users_email ON users (email);
 
 CREATE TABLE IF NOT EXISTS requests (
-    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id              BIGINT DEFAULT nextval('requests_seq') PRIMARY KEY,
     description     VARCHAR(1024) NOT NULL,
     requestor_id    BIGINT NOT NULL,
     created_at      TIMESTAMP WITHOUT TIME ZONE,
+    version         BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_requests_to_users
                     FOREIGN KEY (requestor_id)
                     REFERENCES users(id)
@@ -27,12 +40,13 @@ CREATE TABLE IF NOT EXISTS requests (
 CREATE INDEX idx_requests_requestor_id ON requests (requestor_id);
 
 CREATE TABLE IF NOT EXISTS items (
-    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id              BIGINT DEFAULT nextval('items_seq') PRIMARY KEY,
     name            VARCHAR(128) NOT NULL,
     description     VARCHAR(1024) NOT NULL,
     is_available    BOOL,
     owner_id        BIGINT NOT NULL,
     request_id      BIGINT,
+    version         BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_items_to_users
                     FOREIGN KEY (owner_id)
                     REFERENCES users(id),
@@ -46,12 +60,13 @@ CREATE INDEX idx_items_owner_id ON items (owner_id);
 CREATE INDEX idx_items_request_id ON items (request_id);
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id              BIGINT DEFAULT nextval('bookings_seq') PRIMARY KEY,
     start_date      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date        TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id         BIGINT NOT NULL,
     booker_id       BIGINT NOT NULL,
     status          VARCHAR(64) NOT NULL,
+    version         BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_bookings_to_items
                     FOREIGN KEY (item_id)
                     REFERENCES items(id)
@@ -62,13 +77,14 @@ CREATE TABLE IF NOT EXISTS bookings (
                     ON DELETE CASCADE
 );
 
-CREATE INDEX idx_bookings_start_date ON bookings (start_date);
-CREATE INDEX idx_bookings_end_date ON bookings (end_date);
-CREATE INDEX idx_bookings_item_id ON bookings (item_id);
-CREATE INDEX idx_bookings_booker_id ON bookings (booker_id);
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX idx_bookings_item_status_dates ON bookings (item_id, status, start_date, end_date);
+CREATE INDEX idx_bookings_item_status_end ON bookings (item_id, status, end_date);
 
 CREATE TABLE IF NOT EXISTS comments (
-    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    id              BIGINT DEFAULT nextval('comments_seq') PRIMARY KEY,
     text            TEXT NOT NULL,
     item_id         BIGINT NOT NULL,
     author_id       BIGINT NOT NULL,
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.calendar.BookingCalendar;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.service.UserDeletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BookingCalendarTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private BookingRepository bookingRepository;
+    private BookingCalendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findBookingDatesAfter(eq(BookingStatus.APPROVED), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(makeDates(1L, 1L, 10, 12), makeDates(2L, 1L, 2, 4)))
+                .thenReturn(List.of());
+        calendar = new BookingCalendar(bookingRepository, true);
+        calendar.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void findFreeSlotsShouldReturnGapsBetweenApprovedBookings() {
+        calendar.put(makeBooking(3L, 1L, 6, 8, BookingStatus.APPROVED));
+        calendar.put(makeBooking(4L, 1L, 14, 16, BookingStatus.WAITING));
+
+        assertThat(calendar.findFreeSlots(1L, DAY, DAY.plusDays(20)), contains(
+                slot(0, 2), slot(4, 6), slot(8, 10), slot(12, 20)));
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(3), DAY.plusDays(11)), contains(
+                slot(4, 6), slot(8, 10)));
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(6), DAY.plusDays(8)), empty());
+        assertThat(calendar.findFreeSlots(2L, DAY, DAY.plusDays(1)), contains(slot(0, 1)));
+        verify(bookingRepository, never()).findItemBookingDates(any(), any(), any(), any());
+    }
+
+    @Test
+    void putInsideTransactionShouldBeVisibleOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        calendar.put(makeBooking(3L, 1L, 6, 8, BookingStatus.APPROVED));
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(4), DAY.plusDays(10)), contains(slot(4, 10)));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(4), DAY.plusDays(10)), contains(slot(4, 6), slot(8, 10)));
+    }
+
+    @Test
+    void putWhenTransactionRolledBackShouldNeverShowBooking() {
+        TransactionSynchronizationManager.initSynchronization();
+        calendar.put(makeBooking(3L, 1L, 6, 8, BookingStatus.APPROVED));
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(4), DAY.plusDays(10)), contains(slot(4, 10)));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(4), DAY.plusDays(10)), contains(slot(4, 10)));
+    }
+
+    @Test
+    void putWhileRebuildingShouldBeAppliedAfterLoad() {
+        BookingCalendar rebuilding = new BookingCalendar(bookingRepository, true);
+        when(bookingRepository.findBookingDatesAfter(eq(BookingStatus.APPROVED), anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    rebuilding.put(makeBooking(1L, 1L, 6, 8, BookingStatus.APPROVED));
+                    return List.of(makeDates(2L, 1L, 2, 4));
+                })
+                .thenReturn(List.of());
+
+        rebuilding.rebuild();
+
+        assertThat(rebuilding.findFreeSlots(1L, DAY, DAY.plusDays(10)), contains(slot(0, 2), slot(4, 6), slot(8, 10)));
+    }
+
+    @Test
+    void findFreeSlotsWhenApprovedBookingsOverlapShouldNotSkipLongBooking() {
+        BookingCalendar overlapping = new BookingCalendar(bookingRepository, true);
+        when(bookingRepository.findBookingDatesAfter(eq(BookingStatus.APPROVED), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(makeDates(1L, 1L, 0, 10), makeDates(2L, 1L, 2, 4), makeDates(3L, 1L, 6, 8)))
+                .thenReturn(List.of());
+        overlapping.rebuild();
+
+        assertThat(overlapping.findFreeSlots(1L, DAY.plusDays(5), DAY.plusDays(12)), contains(slot(10, 12)));
+        assertThat(overlapping.findFreeSlots(1L, DAY.plusDays(3), DAY.plusDays(9)), empty());
+    }
+
+    @Test
+    void onUserDeletedShouldRemoveApprovedBookingsOfUser() {
+        calendar.onUserDeleted(new UserDeletedEvent(7L, List.of(), List.of(), List.of(makeDates(1L, 1L, 10, 12))));
+
+        assertThat(calendar.findFreeSlots(1L, DAY.plusDays(4), DAY.plusDays(20)), contains(slot(4, 20)));
+    }
+
+    @Test
+    void findFreeSlotsWhenDisabledShouldLoadBookingsOfWindow() {
+        BookingCalendar disabled = new BookingCalendar(bookingRepository, false);
+        disabled.rebuild();
+        when(bookingRepository.findItemBookingDates(1L, BookingStatus.APPROVED, DAY, DAY.plusDays(5)))
+                .thenReturn(List.of(makeDates(2L, 1L, 2, 4)));
+
+        assertThat(disabled.findFreeSlots(1L, DAY, DAY.plusDays(5)), contains(slot(0, 2), slot(4, 5)));
+    }
+
+    private static AvailabilitySlotDto slot(int startDay, int endDay) {
+        return new AvailabilitySlotDto(DAY.plusDays(startDay), DAY.plusDays(endDay));
+    }
+
+    private static Booking makeBooking(Long id, Long itemId, int startDay, int endDay, BookingStatus status) {
+        Item item = new Item();
+        item.setId(itemId);
+        return new Booking(id, DAY.plusDays(startDay), DAY.plusDays(endDay), item, null, status, null);
+    }
+
+    private static ItemBookingDates makeDates(Long id, Long itemId, int startDay, int endDay) {
+        return new ItemBookingDates() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return DAY.plusDays(startDay);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return DAY.plusDays(endDay);
+            }
+        };
+    }
+}
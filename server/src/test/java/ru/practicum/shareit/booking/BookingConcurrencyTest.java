@@ -0,0 +1,177 @@
+package ru.practicum.shareit.booking;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ConditionsNotMetException;
+import ru.practicum.shareit.exception.ForbiddenOperationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.UpdateItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static ru.practicum.shareit.Util.*;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private final BookingService bookingService;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @SpyBean
+    BookingRepository bookingRepository;
+
+    UserDto owner;
+    UserDto booker;
+    ItemDto item;
+    BookingDto first;
+    BookingDto overlapping;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.create(makeRandomUserDto());
+        booker = userService.create(makeRandomUserDto());
+        item = itemService.create(makeItemDto(null, "name", "desc", true, null), owner.getId());
+        first = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        overlapping = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE.plusDays(1),
+                BOOKING_END_DATE_IN_FUTURE.plusDays(1)), booker.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM bookings WHERE item_id = ?", item.getId());
+        jdbcTemplate.update("DELETE FROM items WHERE id = ?", item.getId());
+        userService.delete(owner.getId());
+        userService.delete(booker.getId());
+    }
+
+    @Test
+    void sequentialApprovalsAndCreationsForSameItemShouldNotConflict() {
+        BookingDto later = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_END_DATE_IN_FUTURE.plusDays(10),
+                BOOKING_END_DATE_IN_FUTURE.plusDays(11)), booker.getId());
+
+        bookingService.approveBookingRequest(first.getId(), true, owner.getId());
+        bookingService.approveBookingRequest(later.getId(), true, owner.getId());
+        bookingService.create(makeNewBookingDto(item.getId(), BOOKING_END_DATE_IN_FUTURE.plusDays(20),
+                BOOKING_END_DATE_IN_FUTURE.plusDays(21)), booker.getId());
+        UpdateItemDto update = new UpdateItemDto();
+        update.setName("new name");
+        itemService.update(update, item.getId(), owner.getId());
+
+        assertThat(statusOf(first), equalTo(BookingStatus.APPROVED.name()));
+        assertThat(statusOf(later), equalTo(BookingStatus.APPROVED.name()));
+    }
+
+    @Test
+    void approvalShouldFailAtCommitWhenOverlappingBookingWasApprovedMeanwhile() {
+        // Approving one booking rejects the other one, which would lock its row until commit; skip that here so the
+        // second approval runs while the first transaction is still open.
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> bookingService.approveBookingRequest(overlapping.getId(), true, owner.getId())).join();
+            return List.of();
+        }).doReturn(List.of())
+                .when(bookingRepository).updateOverlappingStatus(any(), any(), any(), any(), any(), any());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                bookingService.approveBookingRequest(first.getId(), true, owner.getId())));
+
+        assertThat(statusOf(first), equalTo(BookingStatus.WAITING.name()));
+        assertThat(statusOf(overlapping), equalTo(BookingStatus.APPROVED.name()));
+        assertThrows(ConditionsNotMetException.class, () -> bookingService.approveBookingRequest(first.getId(), true, owner.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void approvalShouldFailAtCommitWhenOverlappingBookingWasCreatedMeanwhile() {
+        // The booking is created after the approval rejected the overlapping waiting bookings but before it commits.
+        AtomicReference<BookingDto> created = new AtomicReference<>();
+        doAnswer(invocation -> {
+            List<Long> bookingIds = (List<Long>) invocation.callRealMethod();
+            created.set(CompletableFuture.supplyAsync(() -> bookingService.create(makeNewBookingDto(item.getId(),
+                    BOOKING_START_DATE_IN_FUTURE.plusDays(2), BOOKING_END_DATE_IN_FUTURE.plusDays(2)), booker.getId())).join());
+            return bookingIds;
+        }).doCallRealMethod()
+                .when(bookingRepository).updateOverlappingStatus(any(), any(), any(), any(), any(), any());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                bookingService.approveBookingRequest(first.getId(), true, owner.getId())));
+
+        assertThat(statusOf(first), equalTo(BookingStatus.WAITING.name()));
+        assertThat(statusOf(created.get()), equalTo(BookingStatus.WAITING.name()));
+
+        bookingService.approveBookingRequest(first.getId(), true, owner.getId());
+
+        assertThat(statusOf(first), equalTo(BookingStatus.APPROVED.name()));
+        assertThat(statusOf(created.get()), equalTo(BookingStatus.REJECTED.name()));
+    }
+
+    @Test
+    void approvalShouldRejectOverlappingWaitingBooking() {
+        bookingService.approveBookingRequest(first.getId(), true, owner.getId());
+
+        assertThat(statusOf(first), equalTo(BookingStatus.APPROVED.name()));
+        assertThat(statusOf(overlapping), equalTo(BookingStatus.REJECTED.name()));
+        assertThrows(ForbiddenOperationException.class,
+                () -> bookingService.approveBookingRequest(overlapping.getId(), true, owner.getId()));
+    }
+
+    @Test
+    void approvalShouldBeRetriedAfterConflict() {
+        doThrow(new ObjectOptimisticLockingFailureException(Booking.class, first.getId()))
+                .doAnswer(invocation -> Optional.ofNullable(entityManager.find(Booking.class, first.getId())))
+                .when(bookingRepository).findById(first.getId());
+
+        bookingService.approveBookingRequest(first.getId(), true, owner.getId());
+
+        verify(bookingRepository, times(2)).findById(first.getId());
+        assertThat(statusOf(first), equalTo(BookingStatus.APPROVED.name()));
+    }
+
+    @Test
+    void approvalShouldReportConflictWhenRetriesAreExhausted() {
+        doThrow(new ObjectOptimisticLockingFailureException(Booking.class, first.getId()))
+                .when(bookingRepository).findById(first.getId());
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> bookingService.approveBookingRequest(first.getId(), true, owner.getId()));
+
+        verify(bookingRepository, times(3)).findById(first.getId());
+        assertThat(statusOf(first), equalTo(BookingStatus.WAITING.name()));
+    }
+
+    private String statusOf(BookingDto booking) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, booking.getId());
+    }
+}
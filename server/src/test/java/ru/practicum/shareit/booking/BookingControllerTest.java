@@ -7,10 +7,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -25,6 +30,7 @@ import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -67,6 +73,29 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.end", is(dto.getEnd().toString())));
     }
 
+    @Test
+    void createAllShouldReturnBookingDtoList() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1L).truncatedTo(ChronoUnit.SECONDS);
+        List<NewBookingDto> newBookingDtos = List.of(makeNewBookingDto(1L, start, start.plusDays(1L)),
+                makeNewBookingDto(2L, start, start.plusDays(2L)));
+        List<BookingDto> dtos = List.of(makeBookingDto(1L, makeItemDto(), makeUserDto(), "WAITING", start, start.plusDays(1L)),
+                makeBookingDto(2L, makeItemDto(), makeUserDto(), "WAITING", start, start.plusDays(2L)));
+
+        when(bookingService.createAll(anyList(), anyLong()))
+                .thenReturn(dtos);
+
+        mvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(newBookingDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id", is(dtos.get(1).getId()), Long.class))
+                .andExpect(jsonPath("$[1].status", is("WAITING")));
+    }
+
     @Test
     void approveBookingRequestShouldReturnBookingDto() throws Exception {
         BookingDto dto = makeBookingDto(1L, makeItemDto(), makeUserDto(), "APPROVED",
@@ -75,13 +104,14 @@ public class BookingControllerTest {
         );
 
         when(bookingService.approveBookingRequest(anyLong(), anyBoolean(), anyLong()))
-                .thenReturn(dto);
+                .thenReturn(new BookingDecisionDto(dto, List.of()));
 
         mvc.perform(patch("/bookings/{bookingId}", dto.getId())
                         .param("approved", "true")
                         .header("X-Sharer-User-Id", 1L)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(BookingController.REJECTED_BOOKINGS_HEADER))
                 .andExpect(jsonPath("$.id", is(dto.getId()), Long.class))
                 .andExpect(jsonPath("$.item", notNullValue()))
                 .andExpect(jsonPath("$.booker", notNullValue()))
@@ -90,6 +120,38 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.end", is(dto.getEnd().toString())));
     }
 
+    @Test
+    void approveBookingRequestShouldListRejectedOverlappingBookingsInHeader() throws Exception {
+        BookingDto dto = makeBookingDto(1L, makeItemDto(), makeUserDto(), "APPROVED",
+                LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS),
+                LocalDateTime.now().plusDays(11L).truncatedTo(ChronoUnit.SECONDS)
+        );
+
+        when(bookingService.approveBookingRequest(anyLong(), anyBoolean(), anyLong()))
+                .thenReturn(new BookingDecisionDto(dto, List.of(2L, 3L)));
+
+        mvc.perform(patch("/bookings/{bookingId}", dto.getId())
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.REJECTED_BOOKINGS_HEADER, "2,3"))
+                .andExpect(jsonPath("$.id", is(dto.getId()), Long.class));
+    }
+
+    @Test
+    void approveBookingRequestWhenConcurrentUpdateShouldReturnConflict() throws Exception {
+        when(bookingService.approveBookingRequest(anyLong(), anyBoolean(), anyLong()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        mvc.perform(patch("/bookings/{bookingId}", 1L)
+                        .param("approved", "true")
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", notNullValue()));
+    }
+
     @Test
     void findUserBookingsShouldReturnBookingDtoList() throws Exception {
         LocalDateTime start = LocalDateTime.now().plusDays(2L).truncatedTo(ChronoUnit.SECONDS);
@@ -98,7 +160,7 @@ public class BookingControllerTest {
 
         List<BookingDto> dtos = Arrays.asList(dto1, dto2);
 
-        when(bookingService.findUserBookings(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingService.findUserBookings(anyLong(), ArgumentMatchers.any(BookingFilter.class), anyInt(), anyInt()))
                 .thenReturn(dtos);
 
         mvc.perform(get("/bookings")
@@ -115,6 +177,51 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].end", is(dto1.getEnd().toString())));
     }
 
+    @Test
+    void findUserBookingsWhenPageIsFullShouldReturnNextCursorHeader() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(2L).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto dto1 = makeBookingDto(2L, makeItemDto(), makeUserDto(), "APPROVED", start.plusDays(10L), start.plusDays(11L));
+        BookingDto dto2 = makeBookingDto(1L, makeItemDto(), makeUserDto(), "APPROVED", start, start.plusDays(1L));
+        String after = new BookingCursor(start.plusDays(20L), 3L).encode();
+
+        when(bookingService.findUserBookingsAfter(1L, BookingFilter.of("ALL"), after, 2))
+                .thenReturn(Arrays.asList(dto1, dto2));
+
+        mvc.perform(get("/bookings")
+                        .param("state", "ALL")
+                        .param("size", "2")
+                        .param("after", after)
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, BookingCursor.of(dto2).encode()));
+    }
+
+    @Test
+    void findUserItemsBookingsShouldBindCombinedFilter() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(2L).truncatedTo(ChronoUnit.SECONDS);
+        BookingDto dto = makeBookingDto(1L, makeItemDto(), makeUserDto(), "APPROVED", start, start.plusDays(1L));
+        BookingFilter filter = BookingFilter.of("FUTURE,WAITING");
+        filter.setItemIds(List.of(1L, 2L));
+        filter.setRangeStart(start);
+        filter.setRangeEnd(start.plusDays(5L));
+
+        when(bookingService.findUserItemsBookings(1L, filter, 0, 10))
+                .thenReturn(List.of(dto));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "FUTURE,WAITING")
+                        .param("itemIds", "1,2")
+                        .param("rangeStart", start.toString())
+                        .param("rangeEnd", start.plusDays(5L).toString())
+                        .header("X-Sharer-User-Id", 1L)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(dto.getId()), Long.class));
+    }
+
     @Test
     void findBookingByIdShouldReturnBookingDto() throws Exception {
         LocalDateTime start = LocalDateTime.now().plusDays(2L).truncatedTo(ChronoUnit.SECONDS);
@@ -142,7 +249,7 @@ public class BookingControllerTest {
         BookingDto dto2 = makeBookingDto(2L, makeItemDto(), makeUserDto(), "APPROVED", start.plusDays(10L), start.plusDays(11L));
         List<BookingDto> dtos = Arrays.asList(dto1, dto2);
 
-        when(bookingService.findUserItemsBookings(anyLong(), anyString(), anyInt(), anyInt()))
+        when(bookingService.findUserItemsBookings(anyLong(), ArgumentMatchers.any(BookingFilter.class), anyInt(), anyInt()))
                 .thenReturn(dtos);
 
         mvc.perform(get("/bookings/owner")
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                          + "ru.practicum.shareit.booking.BookingQueryPlanTest$SqlCapture")
+@AutoConfigureTestDatabase
+public class BookingQueryPlanTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final List<Long> IDS = List.of(1L, 2L);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("findBookings(booker)", r -> r.findBookings(query(BookingQuery.Role.BOOKER).build())),
+                query("findBookings(booker, states)", r -> r.findBookings(query(BookingQuery.Role.BOOKER)
+                        .states(EnumSet.of(BookingState.PAST, BookingState.WAITING)).build())),
+                query("findBookings(booker, seek)", r -> r.findBookings(query(BookingQuery.Role.BOOKER)
+                        .after(new BookingCursor(NOW, 1L)).build())),
+                query("findBookings(owner)", r -> r.findBookings(query(BookingQuery.Role.OWNER).build())),
+                query("findBookings(owner, states)", r -> r.findBookings(query(BookingQuery.Role.OWNER)
+                        .states(EnumSet.of(BookingState.CURRENT, BookingState.REJECTED)).build())),
+                query("findBookings(owner, seek)", r -> r.findBookings(query(BookingQuery.Role.OWNER)
+                        .after(new BookingCursor(NOW, 1L)).build())),
+                query("findBookings(owner, items, range)", r -> r.findBookings(query(BookingQuery.Role.OWNER)
+                        .itemIds(IDS).rangeStart(NOW).rangeEnd(NOW.plusDays(1)).build())),
+                query("findLastBookings", r -> r.findLastBookings(IDS, BookingStatus.APPROVED.name(), NOW)),
+                query("findNextBookings", r -> r.findNextBookings(IDS, BookingStatus.APPROVED.name(), NOW)),
+                query("existsByItem_IdAndBooker_idAndStatusAndEndBefore",
+                        r -> r.existsByItem_IdAndBooker_idAndStatusAndEndBefore(1L, 1L, BookingStatus.APPROVED, NOW)),
+                query("existsByItem_IdAndStatusAndStartLessThanAndEndGreaterThan",
+                        r -> r.existsByItem_IdAndStatusAndStartLessThanAndEndGreaterThan(1L, BookingStatus.APPROVED, NOW, NOW)),
+                query("findBookerBookingDates", r -> r.findBookerBookingDates(1L, BookingStatus.APPROVED)),
+                query("findItemBookingDates", r -> r.findItemBookingDates(1L, BookingStatus.APPROVED, NOW, NOW.plusDays(1))),
+                query("updateOverlappingStatus", r -> r.updateOverlappingStatus(1L, NOW, NOW.plusDays(1), 1L,
+                        BookingStatus.WAITING, BookingStatus.REJECTED))
+        );
+    }
+
+    private static BookingQuery.BookingQueryBuilder query(BookingQuery.Role role) {
+        return BookingQuery.builder().role(role).userId(1L).now(NOW).limit(10);
+    }
+
+    private static Arguments query(String name, Consumer<BookingRepository> call) {
+        return Arguments.of(name, call);
+    }
+
+    @BeforeEach
+    void setUp() {
+        SqlCapture.STATEMENTS.clear();
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQueryShouldNotScanBookingsTable(String name, Consumer<BookingRepository> call) {
+        call.accept(bookingRepository);
+
+        List<String> bookingStatements = SqlCapture.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase().contains("bookings"))
+                .toList();
+        assertThat(bookingStatements).as("SQL issued by %s", name).isNotEmpty();
+
+        for (String sql : bookingStatements) {
+            String plan = explain(sql);
+            assertThat(plan).as("Plan of %s:%n%s", name, plan).doesNotContainIgnoringCase("BOOKINGS.tableScan");
+        }
+    }
+
+    @Test
+    void searchNotBookedBetweenShouldProbeBookingsByIndex() {
+        itemRepository.searchNotBookedBetween("drill", NOW, NOW.plusDays(1), BookingStatus.APPROVED, PageRequest.of(0, 10));
+
+        String sql = SqlCapture.STATEMENTS.stream()
+                .filter(statement -> statement.toLowerCase().contains("bookings"))
+                .findFirst()
+                .orElseThrow();
+        String plan = explain(sql);
+        assertThat(plan).as("Plan:%n%s", plan)
+                .doesNotContainIgnoringCase("BOOKINGS.tableScan")
+                .containsIgnoringCase("IDX_BOOKINGS_ITEM_STATUS_DATES");
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameterCount = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameterCount; i++) {
+                statement.setObject(i, null);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    public static class SqlCapture implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
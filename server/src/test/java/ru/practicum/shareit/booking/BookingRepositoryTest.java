@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -15,6 +16,9 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -30,12 +34,12 @@ public class BookingRepositoryTest {
 
     @Test
     void createShouldSaveBookingInDatabase() {
-        User itemOwner = new User(null, "name", "mail@mail.ru");
-        User booker = new User(null, "name2", "mail@mail.com");
+        User itemOwner = new User(null, "name", "mail@mail.ru", null);
+        User booker = new User(null, "name2", "mail@mail.com", null);
         userRepository.save(itemOwner);
         userRepository.save(booker);
 
-        Item item = new Item(null, "name", "desc1", true, itemOwner, null);
+        Item item = new Item(null, "name", "desc1", true, itemOwner, null, null);
         itemRepository.save(item);
 
         Booking booking = new Booking(
@@ -44,7 +48,8 @@ public class BookingRepositoryTest {
                 LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.SECONDS),
                 item,
                 booker,
-                BookingStatus.APPROVED
+                BookingStatus.APPROVED,
+                null
         );
         bookingRepository.save(booking);
 
@@ -58,4 +63,40 @@ public class BookingRepositoryTest {
         assertEquals(booking.getItem(), bookingdb.getItem());
         assertEquals(booking.getBooker(), bookingdb.getBooker());
     }
+
+    @Test
+    void findLastAndNextBookingsShouldReturnSingleClosestBookingPerItem() {
+        User itemOwner = userRepository.save(new User(null, "owner", "owner@mail.ru", null));
+        User booker = userRepository.save(new User(null, "booker", "booker@mail.ru", null));
+        Item item1 = itemRepository.save(new Item(null, "item1", "desc1", true, itemOwner, null, null));
+        Item item2 = itemRepository.save(new Item(null, "item2", "desc2", true, itemOwner, null, null));
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        Booking last1 = saveBooking(item1, booker, now.minusDays(3), now.minusDays(2), BookingStatus.APPROVED);
+        saveBooking(item1, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        saveBooking(item1, booker, now.minusDays(2), now.minusDays(1), BookingStatus.REJECTED);
+        Booking next1 = saveBooking(item1, booker, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED);
+        saveBooking(item1, booker, now.plusDays(5), now.plusDays(6), BookingStatus.APPROVED);
+        Booking next2 = saveBooking(item2, booker, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+        saveBooking(item2, booker, now.plusDays(7), now.plusDays(8), BookingStatus.APPROVED);
+
+        List<ItemBookingDates> last = bookingRepository.findLastBookings(
+                List.of(item1.getId(), item2.getId()), BookingStatus.APPROVED.name(), now);
+        List<ItemBookingDates> next = bookingRepository.findNextBookings(
+                List.of(item1.getId(), item2.getId()), BookingStatus.APPROVED.name(), now);
+
+        assertEquals(1, last.size());
+        assertEquals(last1.getId(), last.getFirst().getId());
+        assertEquals(item1.getId(), last.getFirst().getItemId());
+        assertEquals(last1.getStart(), last.getFirst().getStart());
+        assertEquals(last1.getEnd(), last.getFirst().getEnd());
+
+        Map<Long, Long> nextByItem = next.stream()
+                .collect(Collectors.toMap(ItemBookingDates::getItemId, ItemBookingDates::getId));
+        assertEquals(Map.of(item1.getId(), next1.getId(), item2.getId(), next2.getId()), nextByItem);
+    }
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(new Booking(null, start, end, item, booker, status, null));
+    }
 }
@@ -1,12 +1,21 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingFilter;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
@@ -24,7 +33,12 @@ import java.util.List;
 
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static ru.practicum.shareit.Util.*;
 
@@ -35,6 +49,8 @@ public class BookingServiceImplTest {
     private final BookingService bookingService;
     private final UserService userService;
     private final ItemService itemService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
 
     UserDto booker;
     UserDto itemOwner;
@@ -79,6 +95,129 @@ public class BookingServiceImplTest {
         assertThrows(ConditionsNotMetException.class, () -> bookingService.create(newBookingDto2, booker.getId()));
     }
 
+    @Test
+    void createBookingWhenApprovedBookingPartiallyOverlapsShouldThrowConditionsNotMetException() {
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        NewBookingDto overlapping = makeNewBookingDto(item.getId(), bookingDto.getEnd().minusDays(1), bookingDto.getEnd().plusDays(1));
+        assertThrows(ConditionsNotMetException.class, () -> bookingService.create(overlapping, booker.getId()));
+    }
+
+    @Test
+    void createBookingWhenApprovedBookingDoesNotOverlapShouldCreateBooking() {
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        NewBookingDto later = makeNewBookingDto(item.getId(), bookingDto.getEnd().plusDays(1), bookingDto.getEnd().plusDays(2));
+        assertThat(bookingService.create(later, booker.getId()).getId(), notNullValue());
+    }
+
+    @Test
+    void createBookingWhenApprovedBookingEndsAtStartShouldCreateBooking() {
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        NewBookingDto adjacent = makeNewBookingDto(item.getId(), bookingDto.getEnd(), bookingDto.getEnd().plusDays(1));
+        assertThat(bookingService.create(adjacent, booker.getId()).getId(), notNullValue());
+    }
+
+    @Test
+    void createBookingForFreeSlotFromAvailabilityShouldCreateAndApproveBooking() {
+        LocalDateTime from = BOOKING_END_DATE_IN_FUTURE.plusDays(1);
+        BookingDto first = bookingService.create(makeNewBookingDto(item.getId(), from, from.plusDays(2)), booker.getId());
+        BookingDto second = bookingService.create(makeNewBookingDto(item.getId(), from.plusDays(4), from.plusDays(6)), booker.getId());
+        bookingService.approveBookingRequest(first.getId(), true, itemOwner.getId());
+        bookingService.approveBookingRequest(second.getId(), true, itemOwner.getId());
+        commit();
+
+        try {
+            List<AvailabilitySlotDto> slots = itemService.getItemAvailability(item.getId(), from, from.plusDays(6));
+            assertThat(slots, contains(new AvailabilitySlotDto(first.getEnd(), second.getStart())));
+
+            BookingDto slotBooking = bookingService.create(makeNewBookingDto(item.getId(),
+                    slots.getFirst().getStart(), slots.getFirst().getEnd()), booker.getId());
+            BookingDecisionDto decision = bookingService.approveBookingRequest(slotBooking.getId(), true, itemOwner.getId());
+
+            assertThat(decision.getBooking().getStatus(), equalTo(BookingStatus.APPROVED.toString()));
+            assertThat(itemService.getItemAvailability(item.getId(), from, from.plusDays(6)), is(List.of()));
+        } finally {
+            deleteCommitted();
+        }
+    }
+
+    @Test
+    void createAllShouldCreateBookingsForSeveralItems() {
+        ItemDto item2 = itemService.create(makeItemDto(null, "name2", "desc2", true, null), itemOwner.getId());
+        List<NewBookingDto> newBookingDtos = List.of(
+                makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE),
+                makeNewBookingDto(item2.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE));
+
+        List<BookingDto> bookings = bookingService.createAll(newBookingDtos, booker.getId());
+
+        assertThat(bookings, hasSize(2));
+        assertThat(bookings.get(0).getItem().getId(), equalTo(item.getId()));
+        assertThat(bookings.get(1).getItem().getId(), equalTo(item2.getId()));
+        assertThat(bookings.get(1).getStatus(), equalTo(BookingStatus.WAITING.toString()));
+        assertThat(bookingService.findBookingById(bookings.get(1).getId(), booker.getId()).getId(), equalTo(bookings.get(1).getId()));
+    }
+
+    @Test
+    void createAllWhenOneBookingOverlapsApprovedBookingShouldThrowConditionsNotMetException() {
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        List<NewBookingDto> newBookingDtos = List.of(
+                makeNewBookingDto(item.getId(), bookingDto.getEnd().plusDays(1), bookingDto.getEnd().plusDays(2)),
+                makeNewBookingDto(item.getId(), bookingDto.getEnd().minusDays(1), bookingDto.getEnd().plusDays(1)));
+
+        assertThrows(ConditionsNotMetException.class, () -> bookingService.createAll(newBookingDtos, booker.getId()));
+    }
+
+    @Test
+    void createAllWhenNonexistentItemShouldThrowNotFoundException() {
+        List<NewBookingDto> newBookingDtos = List.of(makeNewBookingDto(NONEXISTENT_ID, BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE));
+        assertThrows(NotFoundException.class, () -> bookingService.createAll(newBookingDtos, booker.getId()));
+    }
+
+    @Test
+    void approveBookingWhenOverlapsApprovedBookingShouldThrowForbiddenOperationException() {
+        BookingDto overlapping = bookingService.create(newBookingDto, booker.getId());
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        entityManager.clear();
+        assertThrows(ForbiddenOperationException.class, () -> {
+            bookingService.approveBookingRequest(overlapping.getId(), true, itemOwner.getId());
+        });
+    }
+
+    @Test
+    void approveBookingShouldRejectOverlappingWaitingBookingsOfSameItem() {
+        ItemDto item2 = itemService.create(makeItemDto(null, "name2", "desc2", true, null), itemOwner.getId());
+        BookingDto overlapping = bookingService.create(makeNewBookingDto(item.getId(),
+                bookingDto.getStart().plusDays(1), bookingDto.getEnd().plusDays(1)), booker.getId());
+        BookingDto touching = bookingService.create(makeNewBookingDto(item.getId(),
+                bookingDto.getEnd(), bookingDto.getEnd().plusDays(1)), booker.getId());
+        BookingDto otherItem = bookingService.create(makeNewBookingDto(item2.getId(),
+                bookingDto.getStart(), bookingDto.getEnd()), booker.getId());
+
+        BookingDecisionDto decision = bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(decision.getRejectedBookingIds(), containsInAnyOrder(overlapping.getId()));
+        assertThat(statusOf(bookingDto), equalTo(BookingStatus.APPROVED.toString()));
+        assertThat(statusOf(overlapping), equalTo(BookingStatus.REJECTED.toString()));
+        assertThat(statusOf(touching), equalTo(BookingStatus.WAITING.toString()));
+        assertThat(statusOf(otherItem), equalTo(BookingStatus.WAITING.toString()));
+    }
+
+    @Test
+    void rejectBookingShouldKeepOverlappingWaitingBookings() {
+        BookingDto overlapping = bookingService.create(newBookingDto, booker.getId());
+
+        bookingService.approveBookingRequest(bookingDto.getId(), false, itemOwner.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(statusOf(overlapping), equalTo(BookingStatus.WAITING.toString()));
+    }
+
+    private String statusOf(BookingDto booking) {
+        return bookingService.findBookingById(booking.getId(), booker.getId()).getStatus();
+    }
+
     @Test
     void createBookingWhenBookingEndIsBeforeStartShouldThrowConditionsNotMetException() {
         NewBookingDto newBookingDto3 = makeNewBookingDto(item.getId(), bookingDto.getEnd(), bookingDto.getStart());
@@ -124,6 +263,19 @@ public class BookingServiceImplTest {
         assertThat(targetBookingDto1.getId(), equalTo(bookingDto.getId()));
     }
 
+    @Test
+    void getBookingEtagShouldChangeOnApprovalAndBeHiddenFromOtherUsers() {
+        UserDto user2 = userService.create(makeRandomUserDto());
+        String etag = bookingService.getBookingEtag(bookingDto.getId(), booker.getId()).orElseThrow();
+
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), itemOwner.getId()).orElseThrow(), equalTo(etag));
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), user2.getId()).isEmpty(), is(true));
+
+        bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+
+        assertThat(bookingService.getBookingEtag(bookingDto.getId(), booker.getId()).orElseThrow(), not(equalTo(etag)));
+    }
+
     @Test
     void approveBookingWhenNonexistentBookingThrowNotFoundException() {
         assertThrows(NotFoundException.class, () -> {
@@ -140,7 +292,7 @@ public class BookingServiceImplTest {
 
     @Test
     void approveBookingWhenApproveWithTrueShouldChangeBookingStatusToApproved() {
-        BookingDto bookingDto1 = bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId());
+        BookingDto bookingDto1 = bookingService.approveBookingRequest(bookingDto.getId(), true, itemOwner.getId()).getBooking();
         assertThat(bookingDto1.getStatus(), equalTo(BookingStatus.APPROVED.toString()));
     }
 
@@ -154,14 +306,14 @@ public class BookingServiceImplTest {
 
     @Test
     void findUserBookingsWhenStateIsAllShouldReturnAllUserBookings() {
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.ALL.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.ALL.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
     @Test
     void findUserBookingsWhenStateIsWaitingShouldReturnUserBookingsWithWaitingStatus() {
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.WAITING.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.WAITING.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -171,7 +323,7 @@ public class BookingServiceImplTest {
         newBookingDto.setStart(BOOKING_START_DATE_IN_PAST);
         newBookingDto.setEnd(BOOKING_END_DATE_IN_PAST);
         bookingDto = bookingService.create(newBookingDto, booker.getId());
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.PAST.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.PAST.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -181,29 +333,29 @@ public class BookingServiceImplTest {
         newBookingDto.setStart(BOOKING_START_DATE_IN_FUTURE);
         newBookingDto.setEnd(BOOKING_END_DATE_IN_FUTURE);
         bookingDto = bookingService.create(newBookingDto, booker.getId());
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.FUTURE.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.FUTURE.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
     @Test
     void findUserBookingsWhenStateIsCurrentShouldReturnCurrentUserBookings() {
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.CURRENT.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.CURRENT.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
     @Test
     void findUserBookingsWhenStateIsRejectedShouldReturnUserBookingsWithRejectedStatus() {
-        bookingDto = bookingService.approveBookingRequest(bookingDto.getId(), false, itemOwner.getId());
-        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingState.REJECTED.toString(), 0, 10);
+        bookingDto = bookingService.approveBookingRequest(bookingDto.getId(), false, itemOwner.getId()).getBooking();
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.REJECTED.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
     @Test
     void findUserItemBookingsWhenStateIsAllShouldReturnAllUserItemBookings() {
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.ALL.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.ALL.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -211,14 +363,14 @@ public class BookingServiceImplTest {
 
     @Test
     void findUserItemBookingsWhenStateIsWaitingShouldReturnUserItemBookingsWithWaitingStatus() {
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.WAITING.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.WAITING.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
     @Test
     void findUserItemBookingsWhenStateIsCurrentShouldReturnCurrentUserItemBookings() {
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.CURRENT.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.CURRENT.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -228,7 +380,7 @@ public class BookingServiceImplTest {
         newBookingDto.setStart(LocalDateTime.now().minusDays(10L));
         newBookingDto.setEnd(LocalDateTime.now().minusDays(8L));
         bookingDto = bookingService.create(newBookingDto, booker.getId());
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.PAST.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.PAST.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -238,7 +390,7 @@ public class BookingServiceImplTest {
         newBookingDto.setStart(LocalDateTime.now().plusDays(10L));
         newBookingDto.setEnd(LocalDateTime.now().plusDays(88L));
         bookingDto = bookingService.create(newBookingDto, booker.getId());
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.FUTURE.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.FUTURE.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
@@ -246,13 +398,115 @@ public class BookingServiceImplTest {
     @Test
     void findUserItemBookingsWhenStateIsRejectedShouldReturnUserItemBookingsWithRejectedStatus() {
         bookingService.approveBookingRequest(bookingDto.getId(), false, itemOwner.getId());
-        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingState.REJECTED.toString(), 0, 10);
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.REJECTED.toString()), 0, 10);
         assertThat(dtos.size(), equalTo(1));
         assertThat(dtos.getFirst().getId(), equalTo(bookingDto.getId()));
     }
 
+    @Test
+    void findUserBookingsAfterShouldReturnBookingsFollowingCursor() {
+        BookingDto past = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_PAST, BOOKING_END_DATE_IN_PAST), booker.getId());
+        BookingDto future = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+
+        List<BookingDto> firstPage = bookingService.findUserBookings(booker.getId(), BookingFilter.of(BookingState.ALL.toString()), 0, 2);
+        assertThat(firstPage.stream().map(BookingDto::getId).toList(), equalTo(List.of(future.getId(), bookingDto.getId())));
+
+        String after = BookingCursor.of(firstPage.getLast()).encode();
+        List<BookingDto> secondPage = bookingService.findUserBookingsAfter(booker.getId(), BookingFilter.of(BookingState.ALL.toString()), after, 2);
+        assertThat(secondPage.stream().map(BookingDto::getId).toList(), equalTo(List.of(past.getId())));
+
+        List<BookingDto> ownerPage = bookingService.findUserItemsBookingsAfter(itemOwner.getId(), BookingFilter.of(BookingState.PAST.toString()), after, 2);
+        assertThat(ownerPage.stream().map(BookingDto::getId).toList(), equalTo(List.of(past.getId())));
+    }
+
+    @Test
+    void findBookingsShouldLoadItemsAndBookersInOneQueryForEveryState() {
+        UserDto otherBooker = userService.create(makeRandomUserDto());
+        ItemDto otherItem = itemService.create(makeItemDto(null, "other", "desc", true, null), itemOwner.getId());
+        bookingService.create(makeNewBookingDto(otherItem.getId(), BOOKING_START_DATE_IN_PAST, BOOKING_END_DATE_IN_PAST), booker.getId());
+        bookingService.create(makeNewBookingDto(otherItem.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), otherBooker.getId());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        String after = new BookingCursor(BOOKING_END_DATE_IN_FUTURE.plusYears(1), Long.MAX_VALUE).encode();
+
+        for (BookingState state : BookingState.values()) {
+            statistics.clear();
+            bookingService.findUserBookings(booker.getId(), BookingFilter.of(state.toString()), 0, 10);
+            assertThat(state.toString(), statistics.getPrepareStatementCount(), equalTo(1L));
+
+            statistics.clear();
+            bookingService.findUserBookingsAfter(booker.getId(), BookingFilter.of(state.toString()), after, 10);
+            assertThat(state.toString(), statistics.getPrepareStatementCount(), equalTo(1L));
+
+            statistics.clear();
+            bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(state.toString()), 0, 10);
+            assertThat(state.toString(), statistics.getPrepareStatementCount(), equalTo(2L));
+
+            statistics.clear();
+            bookingService.findUserItemsBookingsAfter(itemOwner.getId(), BookingFilter.of(state.toString()), after, 10);
+            assertThat(state.toString(), statistics.getPrepareStatementCount(), equalTo(2L));
+            entityManager.clear();
+        }
+        assertThat(bookingService.findUserItemsBookings(itemOwner.getId(), BookingFilter.of(BookingState.ALL.toString()), 0, 10), hasSize(3));
+    }
+
+    @Test
+    void findUserBookingsWhenSeveralStatesShouldReturnBookingsMatchingAnyOfThem() {
+        BookingDto past = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_PAST, BOOKING_END_DATE_IN_PAST), booker.getId());
+        bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+
+        List<BookingDto> dtos = bookingService.findUserBookings(booker.getId(), BookingFilter.of("PAST,CURRENT"), 0, 10);
+        assertThat(dtos.stream().map(BookingDto::getId).toList(), equalTo(List.of(bookingDto.getId(), past.getId())));
+    }
+
+    @Test
+    void findUserItemsBookingsWhenItemIdsAndRangeShouldReturnOverlappingBookingsOfThoseItems() {
+        ItemDto other = itemService.create(makeItemDto(null, "other", "desc", true, null), itemOwner.getId());
+        bookingService.create(makeNewBookingDto(other.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        BookingDto future = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_PAST, BOOKING_END_DATE_IN_PAST), booker.getId());
+
+        BookingFilter filter = BookingFilter.of(BookingState.ALL.toString());
+        filter.setItemIds(List.of(item.getId()));
+        filter.setRangeStart(BOOKING_START_DATE_IN_FUTURE.minusDays(1L));
+        filter.setRangeEnd(BOOKING_START_DATE_IN_FUTURE.plusDays(1L));
+
+        List<BookingDto> dtos = bookingService.findUserItemsBookings(itemOwner.getId(), filter, 0, 10);
+        assertThat(dtos.stream().map(BookingDto::getId).toList(), equalTo(List.of(future.getId(), bookingDto.getId())));
+    }
+
+    @Test
+    void findUserBookingsWhenRangeStartIsNotBeforeRangeEndShouldThrowConditionsNotMetException() {
+        BookingFilter filter = BookingFilter.of(BookingState.ALL.toString());
+        filter.setRangeStart(NOW);
+        filter.setRangeEnd(NOW);
+        assertThrows(ConditionsNotMetException.class, () -> bookingService.findUserBookings(booker.getId(), filter, 0, 10));
+    }
+
+    @Test
+    void findUserBookingsAfterWhenCursorIsMalformedShouldThrowConditionsNotMetException() {
+        assertThrows(ConditionsNotMetException.class, () ->
+                bookingService.findUserBookingsAfter(booker.getId(), BookingFilter.of(BookingState.ALL.toString()), "not-a-cursor", 10));
+    }
+
     @Test
     void bookingStateOfWhenPassedNonexistentValueThenShouldThrowConditionsNotMetException() {
         assertThrows(ConditionsNotMetException.class, () -> BookingState.of("NonexistentValue"));
     }
+
+    /**
+     * The booking calendar applies approvals only after commit, so tests reading availability commit their data and
+     * run the rest of the test without the test transaction.
+     */
+    private void commit() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    private void deleteCommitted() {
+        userService.delete(booker.getId());
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", itemOwner.getId());
+        userService.delete(itemOwner.getId());
+    }
 }
@@ -0,0 +1,129 @@
+package ru.practicum.shareit.cache;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.MockReset;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UpdateUserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static ru.practicum.shareit.Util.makeItemDto;
+import static ru.practicum.shareit.Util.makeNewItemRequestDto;
+import static ru.practicum.shareit.Util.makeRandomUserDto;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class EntityCacheTest {
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ItemService itemService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @MockBean(reset = MockReset.NONE)
+    CacheInvalidationChannel channel;
+
+    private Long userId;
+    private Long itemId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userService.create(makeRandomUserDto()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (itemId != null) {
+            jdbcTemplate.update("DELETE FROM items WHERE id = ?", itemId);
+        }
+        userService.delete(userId);
+    }
+
+    @Test
+    void findByIdShouldBeServedFromSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        findUser();
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        findUser();
+
+        assertThat(statistics.getSecondLevelCacheHitCount(), equalTo(hits + 1));
+    }
+
+    @Test
+    void updateOfCachedEntityShouldBePublished() {
+        UpdateUserDto update = new UpdateUserDto();
+        update.setName("new name");
+
+        userService.update(update, userId);
+
+        verify(channel).publish(new CacheInvalidation(User.class.getName(), userId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void receivedInvalidationShouldEvictEntity() {
+        ArgumentCaptor<Consumer<CacheInvalidation>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(channel).subscribe(listener.capture());
+        findUser();
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId), is(true));
+
+        listener.getValue().accept(new CacheInvalidation(User.class.getName(), userId));
+
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId), is(false));
+    }
+
+    @Test
+    void deletingRequestorShouldEvictCascadedRequestsAndItems() {
+        Long requestorId = userService.create(makeRandomUserDto()).getId();
+        long requestId = itemRequestService.create(requestorId, makeNewItemRequestDto("description")).getId();
+        itemId = itemService.create(makeItemDto(null, "name", "description", true, requestId), userId).getId();
+        itemRequestService.getItemRequestById(requestId);
+        find(Item.class, itemId);
+        assertThat(entityManagerFactory.getCache().contains(ItemRequest.class, requestId), is(true));
+        assertThat(entityManagerFactory.getCache().contains(Item.class, itemId), is(true));
+
+        userService.delete(requestorId);
+
+        assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequestById(requestId));
+        assertThat(find(Item.class, itemId).getRequest(), nullValue());
+        verify(channel).publish(new CacheInvalidation(ItemRequest.class.getName(), requestId));
+        verify(channel).publish(new CacheInvalidation(Item.class.getName(), itemId));
+    }
+
+    private <T> T find(Class<T> entityClass, Long id) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            return entityManager.find(entityClass, id);
+        }
+    }
+
+    private void findUser() {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            entityManager.find(User.class, userId);
+        }
+    }
+}
@@ -7,7 +7,10 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.booking.dto.BookingDatesDto;
+import ru.practicum.shareit.exception.ConditionsNotMetException;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
@@ -18,13 +21,17 @@ import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -61,6 +68,41 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.requestId", is(itemDto.getRequestId()), Long.class));
     }
 
+    @Test
+    void createAllShouldReturnItemDtoList() throws Exception {
+        List<ItemDto> itemDtos = List.of(makeItemDto(1L, "name1", "desc1", true, null),
+                makeItemDto(2L, "name2", "desc2", true, 1L));
+
+        when(itemService.createAll(anyList(), anyLong()))
+                .thenReturn(itemDtos);
+
+        mvc.perform(post("/items/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .content(mapper.writeValueAsString(itemDtos))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(itemDtos.get(0).getId()), Long.class))
+                .andExpect(jsonPath("$[1].requestId", is(itemDtos.get(1).getRequestId()), Long.class));
+    }
+
+    @Test
+    void getItemAvailabilityShouldReturnFreeSlots() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0, 30);
+        LocalDateTime to = from.plusDays(10);
+        when(itemService.getItemAvailability(1L, from, to))
+                .thenReturn(List.of(new AvailabilitySlotDto(from, from.plusDays(2)), new AvailabilitySlotDto(from.plusDays(5), to)));
+
+        mvc.perform(get("/items/{id}/availability", 1L)
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].start", is(from.plusDays(5).toString())));
+    }
+
     @Test
     void updateShouldReturnItemDto() throws Exception {
         ItemDto itemDto = makeItemDto(1L, "name", "desc", true, 1L);
@@ -170,7 +212,7 @@ public class ItemControllerTest {
         ItemDto dto2 = makeItemDto(2L, "name2", "desc3", true, null);
         List<ItemDto> itemDtos = Arrays.asList(dto1, dto2);
 
-        when(itemService.search(anyString()))
+        when(itemService.search(anyString(), anyInt(), anyInt()))
                 .thenReturn(itemDtos);
 
         mvc.perform(get("/items/search")
@@ -184,6 +226,86 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].requestId", is(dto1.getRequestId()), Long.class));
     }
 
+    @Test
+    void searchWhenRangeGivenShouldSearchItemsAvailableInRange() throws Exception {
+        LocalDateTime rangeStart = LocalDateTime.of(2030, 1, 1, 10, 0, 30);
+        LocalDateTime rangeEnd = rangeStart.plusDays(2);
+        ItemDto dto = makeItemDto(1L, "name1", "desc1", true, null);
+
+        when(itemService.searchAvailableBetween("name", rangeStart, rangeEnd, 0, 10))
+                .thenReturn(List.of(dto));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "name")
+                        .param("rangeStart", rangeStart.toString())
+                        .param("rangeEnd", rangeEnd.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(dto.getId()), Long.class));
+    }
+
+    @Test
+    void searchWhenNdjsonAcceptedShouldStreamOneItemPerLine() throws Exception {
+        ItemDto dto1 = makeItemDto(1L, "name1", "desc1", true, 1L);
+        ItemDto dto2 = makeItemDto(2L, "name2", "desc3", true, null);
+
+        doAnswer(invocation -> {
+            Consumer<ItemDto> consumer = invocation.getArgument(3);
+            consumer.accept(dto1);
+            consumer.accept(dto2);
+            return null;
+        }).when(itemService).streamSearch(eq("name"), eq(0), eq(10), any());
+
+        MvcResult result = mvc.perform(get("/items/search")
+                        .param("text", "name")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(dto1) + "\n" + mapper.writeValueAsString(dto2) + "\n"));
+    }
+
+    @Test
+    void searchWhenNdjsonAcceptedAndRangeGivenShouldStreamItemsAvailableInRange() throws Exception {
+        LocalDateTime rangeStart = LocalDateTime.of(2030, 1, 1, 10, 0, 30);
+        LocalDateTime rangeEnd = rangeStart.plusDays(2);
+        ItemDto dto = makeItemDto(1L, "name1", "desc1", true, null);
+
+        when(itemService.searchAvailableBetween("name", rangeStart, rangeEnd, 0, 10))
+                .thenReturn(List.of(dto));
+
+        MvcResult result = mvc.perform(get("/items/search")
+                        .param("text", "name")
+                        .param("rangeStart", rangeStart.toString())
+                        .param("rangeEnd", rangeEnd.toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(dto) + "\n"));
+    }
+
+    @Test
+    void searchWhenNdjsonAcceptedAndRangeIncompleteShouldReturnBadRequest() throws Exception {
+        LocalDateTime rangeStart = LocalDateTime.of(2030, 1, 1, 10, 0, 30);
+
+        when(itemService.searchAvailableBetween("name", rangeStart, null, 0, 10))
+                .thenThrow(new ConditionsNotMetException("Необходимо указать начало и окончание периода"));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "name")
+                        .param("rangeStart", rangeStart.toString())
+                        .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
     private ItemExtendedDto makeItemExtendedDto(Long id,
                                                 String name,
                                                 String description,
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -25,7 +26,7 @@ public class ItemRepositoryTest {
 
     @Test
     void searchShouldFindItemsByCriteriaMatchedWithNameOrDescription() {
-        User user = new User(null, "name", "mail@mail.ru");
+        User user = new User(null, "name", "mail@mail.ru", null);
         userRepository.save(user);
 
         Item item1 = makeItem("searched_item1", "desc1", true, user);
@@ -33,7 +34,7 @@ public class ItemRepositoryTest {
         itemRepository.save(item1);
         itemRepository.save(item2);
 
-        List<Item> items = itemRepository.search("item");
+        List<Item> items = itemRepository.search("item", PageRequest.of(0, 10));
 
         assertThat(items.size()).isEqualTo(2);
         assertTrue(items.contains(item1));
@@ -41,6 +42,22 @@ public class ItemRepositoryTest {
     }
 
 
+    @Test
+    void searchShouldRankNameMatchesFirstAndReturnRequestedPage() {
+        User user = userRepository.save(new User(null, "name", "mail@mail.ru", null));
+
+        Item descriptionMatch = itemRepository.save(makeItem("hammer", "cordless drill included", true, user));
+        Item nameMatch1 = itemRepository.save(makeItem("Drill", "desc", true, user));
+        Item nameMatch2 = itemRepository.save(makeItem("Hammer drill", "desc", true, user));
+        itemRepository.save(makeItem("drill press", "desc", false, user));
+
+        List<Item> firstPage = itemRepository.search("drill", PageRequest.of(0, 2));
+        List<Item> secondPage = itemRepository.search("drill", PageRequest.of(1, 2));
+
+        assertThat(firstPage).containsExactly(nameMatch1, nameMatch2);
+        assertThat(secondPage).containsExactly(descriptionMatch);
+    }
+
     private Item makeItem(String name, String description, boolean available, User owner) {
         Item item = new Item();
         item.setName(name);
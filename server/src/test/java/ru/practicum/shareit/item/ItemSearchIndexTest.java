@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ItemSearchIndexTest {
+    private ItemRepository itemRepository;
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        when(itemRepository.findByIdGreaterThanOrderById(anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+        index = new ItemSearchIndex(itemRepository, true);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void searchShouldRankNameMatchesFirstAndPage() {
+        index.put(makeItem(1L, "plain", "Handy Drill inside", true));
+        index.put(makeItem(2L, "DRILL", "desc", true));
+        index.put(makeItem(3L, "drill press", "desc", false));
+        index.put(makeItem(4L, "hammer drill", "desc", true));
+        index.put(makeItem(5L, "hammer", "desc", true));
+
+        assertThat(index.search("drill", 0, 10), contains(2L, 4L, 1L));
+        assertThat(index.search("drill", 1, 1), contains(4L));
+        assertThat(index.search("drill", 3, 10), empty());
+        assertThat(index.search("dr", 0, 10), contains(2L, 4L, 1L));
+        assertThat(index.search("drills", 0, 10), empty());
+    }
+
+    @Test
+    void putInsideTransactionShouldApplyOnlyAfterCommit() {
+        index.put(makeItem(1L, "drill", "desc", true));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(makeItem(1L, "saw", "desc", true));
+        index.put(makeItem(2L, "drill bit", "desc", true));
+        assertThat(index.search("drill", 0, 10), contains(1L));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(index.search("drill", 0, 10), contains(2L));
+        assertThat(index.search("saw", 0, 10), contains(1L));
+    }
+
+    @Test
+    void putInsideRolledBackTransactionShouldNotChangeIndex() {
+        index.put(makeItem(1L, "drill", "desc", true));
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(makeItem(1L, "saw", "desc", true));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(index.search("drill", 0, 10), contains(1L));
+        assertThat(index.search("saw", 0, 10), empty());
+    }
+
+    @Test
+    void putShouldIgnoreOlderVersionOfIndexedItem() {
+        Item current = makeItem(1L, "saw", "desc", true);
+        current.setVersion(2L);
+        Item stale = makeItem(1L, "drill", "desc", true);
+        stale.setVersion(1L);
+
+        index.put(current);
+        index.put(stale);
+
+        assertThat(index.search("saw", 0, 10), contains(1L));
+        assertThat(index.search("drill", 0, 10), empty());
+    }
+
+    @Test
+    void searchShouldHandleSparseIdsBeyondIntRange() {
+        long large = Integer.MAX_VALUE + 1000L;
+        index.put(makeItem(large, "drill", "desc", true));
+        index.put(makeItem(501L, "drill", "desc", true));
+        index.put(makeItem(1L, "desc", "drill", true));
+
+        assertThat(index.search("drill", 0, 10), contains(501L, large, 1L));
+    }
+
+    @Test
+    void rebuildShouldLoadItemsInKeysetPages() {
+        List<Item> firstPage = LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> makeItem(id * 500, "item " + id, "desc", true))
+                .toList();
+        when(itemRepository.findByIdGreaterThanOrderById(eq(0L), any(Limit.class))).thenReturn(firstPage);
+        when(itemRepository.findByIdGreaterThanOrderById(eq(500_000L), any(Limit.class)))
+                .thenReturn(List.of(makeItem(500_500L, "drill", "desc", true)));
+
+        index.rebuild();
+
+        assertThat(index.search("drill", 0, 10), contains(500_500L));
+        assertThat(index.search("item 1000", 0, 10), contains(500_000L));
+    }
+
+    private Item makeItem(Long id, String name, String description, boolean available) {
+        return new Item(id, name, description, available, null, null, null);
+    }
+}
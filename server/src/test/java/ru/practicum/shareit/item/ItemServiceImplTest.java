@@ -5,7 +5,10 @@ import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.AvailabilitySlotDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -14,6 +17,7 @@ import ru.practicum.shareit.exception.ForbiddenOperationException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -34,6 +38,8 @@ public class ItemServiceImplTest {
     private final UserService userService;
     private final ItemService itemService;
     private final BookingService bookingService;
+    private final ItemRequestService itemRequestService;
+    private final JdbcTemplate jdbcTemplate;
 
 
     @Test
@@ -128,6 +134,54 @@ public class ItemServiceImplTest {
         assertThrows(NotFoundException.class, () -> itemService.getItemById(NONEXISTENT_ID, owner.getId()));
     }
 
+    @Test
+    void getItemEtagShouldChangeWithItemAndOwnerViewWithApprovedBookings() {
+        UserDto booker = userService.create(makeRandomUserDto());
+        UserDto owner = userService.create(makeRandomUserDto());
+        ItemDto item = itemService.create(makeItemDto(null, "name1", "desc1", true, null), owner.getId());
+
+        String bookerEtag = itemService.getItemEtag(item.getId(), booker.getId()).orElseThrow();
+        String ownerEtag = itemService.getItemEtag(item.getId(), owner.getId()).orElseThrow();
+        assertThat(ownerEtag, not(equalTo(bookerEtag)));
+
+        UpdateItemDto updateItemDto = new UpdateItemDto();
+        updateItemDto.setName("New name");
+        itemService.update(updateItemDto, item.getId(), owner.getId());
+        String updatedBookerEtag = itemService.getItemEtag(item.getId(), booker.getId()).orElseThrow();
+        assertThat(updatedBookerEtag, not(equalTo(bookerEtag)));
+
+        ownerEtag = itemService.getItemEtag(item.getId(), owner.getId()).orElseThrow();
+        BookingDto booking = bookingService.create(
+                makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        bookingService.approveBookingRequest(booking.getId(), true, owner.getId());
+
+        assertThat(itemService.getItemEtag(item.getId(), owner.getId()).orElseThrow(), not(equalTo(ownerEtag)));
+        assertThat(itemService.getItemEtag(item.getId(), booker.getId()).orElseThrow(), equalTo(updatedBookerEtag));
+        assertThat(itemService.getItemEtag(NONEXISTENT_ID, owner.getId()).isEmpty(), is(true));
+    }
+
+    @Test
+    void createAllShouldSaveItemsAndLinkRequests() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        UserDto requestor = userService.create(makeRandomUserDto());
+        Long requestId = itemRequestService.create(requestor.getId(), makeNewItemRequestDto("description")).getId();
+        List<ItemDto> itemDtos = List.of(makeItemDto(null, "name1", "desc1", true, null),
+                makeItemDto(null, "name2", "desc2", false, requestId));
+
+        List<ItemDto> saved = itemService.createAll(itemDtos, owner.getId());
+
+        assertThat(saved, hasSize(2));
+        assertThat(saved.get(0).getId(), notNullValue());
+        assertThat(saved.get(1).getRequestId(), equalTo(requestId));
+        assertThat(itemService.getUserItems(owner.getId(), 0, 10), hasSize(2));
+    }
+
+    @Test
+    void createAllWhenNonexistentUserShouldThrowNotFoundException() {
+        List<ItemDto> itemDtos = List.of(makeItemDto(null, "name1", "desc1", true, null));
+        assertThrows(NotFoundException.class, () -> itemService.createAll(itemDtos, NONEXISTENT_ID));
+    }
+
     @Test
     void updateShouldUpdateItem() {
         UserDto owner = userService.create(makeRandomUserDto());
@@ -208,25 +262,56 @@ public class ItemServiceImplTest {
     @Test
     void searchWhenTextNotEmptyShouldReturnItemsWithMatchingNameOrDescription() {
         UserDto owner = userService.create(makeRandomUserDto());
+        String keyText = getRandomString(12);
 
-        ItemDto itemDto1 = makeItemDto(null, "name with keyText for being searched", "desc1", true, null);
+        ItemDto itemDto1 = makeItemDto(null, "name with " + keyText + " for being searched", "desc1", true, null);
         ItemDto item1 = itemService.create(itemDto1, owner.getId());
 
-        ItemDto itemDto2 = makeItemDto(null, "name", "description with keyText for being searched", true, null);
+        ItemDto itemDto2 = makeItemDto(null, "name", "description with " + keyText + " for being searched", true, null);
         ItemDto item2 = itemService.create(itemDto2, owner.getId());
+        commit();
+
+        try {
+            List<ItemDto> savedDtos = Arrays.asList(item1, item2);
+            List<ItemDto> targetDtos = itemService.search(keyText, 0, 10);
+
+            assertThat(targetDtos, hasSize(savedDtos.size()));
+            for (ItemDto dto : savedDtos) {
+                assertThat(targetDtos, hasItem(allOf(
+                        hasProperty("id", equalTo(dto.getId())),
+                        hasProperty("name", equalTo(dto.getName())),
+                        hasProperty("description", equalTo(dto.getDescription())),
+                        hasProperty("available", equalTo(dto.getAvailable())),
+                        hasProperty("requestId", equalTo(dto.getRequestId()))
+                )));
+            }
+        } finally {
+            deleteCommitted(owner);
+        }
+    }
 
-        List<ItemDto> savedDtos = Arrays.asList(item1, item2);
-        List<ItemDto> targetDtos = itemService.search("keyText");
+    @Test
+    void searchAfterUpdateShouldReflectNewNameAndAvailability() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        String keyText = getRandomString(12);
+        ItemDto item = itemService.create(makeItemDto(null, "old " + keyText, "desc1", true, null), owner.getId());
+        commit();
 
-        assertThat(targetDtos, hasSize(savedDtos.size()));
-        for (ItemDto dto : savedDtos) {
-            assertThat(targetDtos, hasItem(allOf(
-                    hasProperty("id", equalTo(dto.getId())),
-                    hasProperty("name", equalTo(dto.getName())),
-                    hasProperty("description", equalTo(dto.getDescription())),
-                    hasProperty("available", equalTo(dto.getAvailable())),
-                    hasProperty("requestId", equalTo(dto.getRequestId()))
-            )));
+        try {
+            UpdateItemDto rename = new UpdateItemDto();
+            rename.setName("cordless screwdriver " + keyText + "new");
+            itemService.update(rename, item.getId(), owner.getId());
+
+            assertThat(itemService.search("old " + keyText, 0, 10), empty());
+            assertThat(itemService.search(keyText + "new", 0, 10), contains(hasProperty("id", equalTo(item.getId()))));
+
+            UpdateItemDto disable = new UpdateItemDto();
+            disable.setAvailable(false);
+            itemService.update(disable, item.getId(), owner.getId());
+
+            assertThat(itemService.search(keyText + "new", 0, 10), empty());
+        } finally {
+            deleteCommitted(owner);
         }
     }
 
@@ -240,7 +325,7 @@ public class ItemServiceImplTest {
         ItemDto itemDto2 = makeItemDto(null, "1234", "description with keyText for being searched", true, null);
         itemService.create(itemDto2, owner.getId());
 
-        List<ItemDto> targetDtos = itemService.search("");
+        List<ItemDto> targetDtos = itemService.search("", 0, 10);
 
         assertThat(targetDtos, empty());
     }
@@ -263,4 +348,84 @@ public class ItemServiceImplTest {
         assertThrows(ConditionsNotMetException.class, () -> itemService.createComment(newCommentDto, item.getId(), NONEXISTENT_ID));
     }
 
+    @Test
+    void searchAvailableBetweenShouldSkipItemsWithOverlappingApprovedBookings() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        UserDto booker = userService.create(makeRandomUserDto());
+        ItemDto booked = itemService.create(makeItemDto(null, "windowKey booked", "desc", true, null), owner.getId());
+        ItemDto waiting = itemService.create(makeItemDto(null, "windowKey waiting", "desc", true, null), owner.getId());
+        ItemDto free = itemService.create(makeItemDto(null, "other", "windowKey free", true, null), owner.getId());
+        BookingDto approved = bookingService.create(makeNewBookingDto(booked.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        bookingService.approveBookingRequest(approved.getId(), true, owner.getId());
+        bookingService.create(makeNewBookingDto(waiting.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+
+        List<ItemDto> overlapping = itemService.searchAvailableBetween("WINDOWKEY", BOOKING_START_DATE_IN_FUTURE.minusDays(1),
+                BOOKING_START_DATE_IN_FUTURE.plusDays(1), 0, 10);
+        List<ItemDto> before = itemService.searchAvailableBetween("WINDOWKEY", NOW, BOOKING_START_DATE_IN_FUTURE.minusDays(1), 0, 10);
+        List<ItemDto> adjacent = itemService.searchAvailableBetween("WINDOWKEY", BOOKING_END_DATE_IN_FUTURE,
+                BOOKING_END_DATE_IN_FUTURE.plusDays(1), 0, 10);
+
+        assertThat(overlapping.stream().map(ItemDto::getId).toList(), contains(waiting.getId(), free.getId()));
+        assertThat(before.stream().map(ItemDto::getId).toList(), contains(booked.getId(), waiting.getId(), free.getId()));
+        assertThat(adjacent.stream().map(ItemDto::getId).toList(), contains(booked.getId(), waiting.getId(), free.getId()));
+    }
+
+    @Test
+    void searchAvailableBetweenWhenRangeIsIncompleteShouldThrowConditionsNotMetException() {
+        assertThrows(ConditionsNotMetException.class, () -> itemService.searchAvailableBetween("text", NOW, null, 0, 10));
+        assertThrows(ConditionsNotMetException.class, () -> itemService.searchAvailableBetween("text", NOW, NOW, 0, 10));
+    }
+
+    @Test
+    void getItemAvailabilityShouldExcludeApprovedBookingsOnly() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        UserDto booker = userService.create(makeRandomUserDto());
+        ItemDto item = itemService.create(makeItemDto(null, "name1", "desc1", true, null), owner.getId());
+        BookingDto approved = bookingService.create(makeNewBookingDto(item.getId(), BOOKING_START_DATE_IN_FUTURE, BOOKING_END_DATE_IN_FUTURE), booker.getId());
+        bookingService.approveBookingRequest(approved.getId(), true, owner.getId());
+        bookingService.create(makeNewBookingDto(item.getId(), NOW.plusDays(1), NOW.plusDays(2)), booker.getId());
+        commit();
+
+        try {
+            List<AvailabilitySlotDto> slots = itemService.getItemAvailability(item.getId(), NOW, NOW.plusDays(200));
+
+            assertThat(slots, contains(
+                    new AvailabilitySlotDto(NOW, BOOKING_START_DATE_IN_FUTURE),
+                    new AvailabilitySlotDto(BOOKING_END_DATE_IN_FUTURE, NOW.plusDays(200))));
+        } finally {
+            userService.delete(booker.getId());
+            deleteCommitted(owner);
+        }
+    }
+
+    @Test
+    void getItemAvailabilityWhenItemIsUnavailableShouldReturnEmptyList() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        ItemDto item = itemService.create(makeItemDto(null, "name1", "desc1", false, null), owner.getId());
+
+        assertThat(itemService.getItemAvailability(item.getId(), NOW, NOW.plusDays(1)), empty());
+    }
+
+    @Test
+    void getItemAvailabilityWhenPeriodIsEmptyShouldThrowConditionsNotMetException() {
+        UserDto owner = userService.create(makeRandomUserDto());
+        ItemDto item = itemService.create(makeItemDto(null, "name1", "desc1", true, null), owner.getId());
+
+        assertThrows(ConditionsNotMetException.class, () -> itemService.getItemAvailability(item.getId(), NOW, NOW));
+        assertThrows(NotFoundException.class, () -> itemService.getItemAvailability(NONEXISTENT_ID, NOW, NOW.plusDays(1)));
+    }
+
+    /**
+     * The search index and the booking calendar apply changes only after commit, so tests reading them commit their
+     * data and run the rest of the test without the test transaction.
+     */
+    private void commit() {
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+    }
+
+    private void deleteCommitted(UserDto owner) {
+        jdbcTemplate.update("DELETE FROM items WHERE owner_id = ?", owner.getId());
+        userService.delete(owner.getId());
+    }
 }
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.Util.*;
+
+@Transactional
+@SpringBootTest(properties = "shareit.metrics.sql.rows.enabled=true")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SqlMetricsTest {
+    private static final String ENDPOINT = "ItemRequestController.getUserItemRequests";
+
+    private final MockMvc mvc;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+
+    @Test
+    void requestShouldBeRecordedWithStatementsRowsAndEntityLoads() throws Exception {
+        Long requestorId = userService.create(makeRandomUserDto()).getId();
+        Long ownerId = userService.create(makeRandomUserDto()).getId();
+        for (int i = 0; i < 2; i++) {
+            ItemRequestDto request = itemRequestService.create(requestorId, makeNewItemRequestDto("description" + i));
+            itemService.create(makeItemDto(null, "name" + i, "desc", true, request.getId()), ownerId);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", requestorId))
+                .andExpect(status().isOk());
+
+        assertThat(summary(SqlMetrics.STATEMENTS_METRIC).totalAmount(), equalTo(2.0));
+        assertThat(summary(SqlMetrics.ROWS_METRIC).totalAmount(), equalTo(4.0));
+        assertThat(summary(SqlMetrics.ENTITY_LOADS_METRIC).totalAmount(), equalTo(4.0));
+
+        mvc.perform(get("/actuator/sqlqueries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['" + ENDPOINT + "'].requests", is(1)))
+                .andExpect(jsonPath("$['" + ENDPOINT + "'].statements", is(2)))
+                .andExpect(jsonPath("$['" + ENDPOINT + "'].maxStatementsPerRequest", is(2)));
+    }
+
+    private DistributionSummary summary(String name) {
+        return meterRegistry.get(name)
+                .tag(SqlMetrics.ENDPOINT_TAG, ENDPOINT)
+                .summary();
+    }
+}
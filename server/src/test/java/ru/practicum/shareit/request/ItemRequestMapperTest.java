@@ -31,7 +31,7 @@ public class ItemRequestMapperTest {
         requestor.setName("name");
         requestor.setEmail("email");
 
-        ItemRequest request = new ItemRequest(1L, "desc", requestor, null);
+        ItemRequest request = new ItemRequest(1L, "desc", requestor, null, null);
 
         User itemOwner = new User();
         itemOwner.setId(2L);
@@ -22,10 +22,10 @@ public class ItemRequestRepositoryTest {
 
     @Test
     void createShouldSaveItemRequestInDatabase() {
-        User user = new User(null, "name", "mail@mail.ru");
+        User user = new User(null, "name", "mail@mail.ru", null);
         userRepository.save(user);
 
-        ItemRequest request = new ItemRequest(null, "desc", user, null);
+        ItemRequest request = new ItemRequest(null, "desc", user, null, null);
         ItemRequest requestdb = itemRequestRepository.save(request);
 
         assertNotNull(requestdb);
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.request;
 
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -32,6 +35,7 @@ public class ItemRequestServiceImplTest {
     private final ItemRequestService itemRequestService;
     private final UserService userService;
     private final ItemService itemService;
+    private final EntityManager entityManager;
 
 
     @Test
@@ -93,6 +97,29 @@ public class ItemRequestServiceImplTest {
         }
     }
 
+    @Test
+    void getUserItemRequestsShouldLoadItemsWithConstantNumberOfQueries() {
+        Long requestorId = userService.create(makeRandomUserDto()).getId();
+        UserDto itemOwner = userService.create(makeRandomUserDto());
+        for (int i = 0; i < 5; i++) {
+            ItemRequestDto request = itemRequestService.create(requestorId, makeNewItemRequestDto("description" + i));
+            itemService.create(makeItemDto(null, "name" + i, "desc", true, request.getId()), itemOwner.getId());
+            itemService.create(makeItemDto(null, "other" + i, "desc", true, request.getId()), itemOwner.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemRequestDto> targetRequests = itemRequestService.getUserItemRequests(requestorId, 0, 10);
+
+        assertThat(targetRequests, hasSize(5));
+        assertThat(targetRequests, everyItem(hasProperty("items", hasSize(2))));
+        assertThat(targetRequests.getFirst().getItems(), everyItem(hasProperty("ownerId", equalTo(itemOwner.getId()))));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
     @Test
     void getItemRequestByIdWhenCorrectRequestIdShouldReturnItemRequest() {
         UserDto requestor = userService.create(makeRandomUserDto());
@@ -109,6 +136,19 @@ public class ItemRequestServiceImplTest {
         assertThat(targetRequests.getCreated(), equalTo(request.getCreated()));
     }
 
+    @Test
+    void getItemRequestEtagShouldChangeWhenItemIsAddedToRequest() {
+        UserDto requestor = userService.create(makeRandomUserDto());
+        ItemRequestDto request = itemRequestService.create(requestor.getId(), makeNewItemRequestDto("description"));
+        String etag = itemRequestService.getItemRequestEtag(request.getId()).orElseThrow();
+
+        UserDto itemOwner = userService.create(makeRandomUserDto());
+        itemService.create(makeItemDto(null, "name", "desc", true, request.getId()), itemOwner.getId());
+
+        assertThat(itemRequestService.getItemRequestEtag(request.getId()).orElseThrow(), not(equalTo(etag)));
+        assertThat(itemRequestService.getItemRequestEtag(NONEXISTENT_ID).isEmpty(), is(true));
+    }
+
     @Test
     void getItemRequestByIdWhenNonexistentRequestIdShouldThrowNotFoundException() {
         assertThrows(NotFoundException.class, () -> itemRequestService.getItemRequestById(NONEXISTENT_ID));